@@ -1,11 +1,13 @@
 package com.example.config;
 
+import com.example.util.AsyncHbaseUtil;
 import com.example.util.HbaseUtil;
-import com.sun.org.apache.regexp.internal.RE;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -20,6 +22,7 @@ import java.io.IOException;
  * @Version 1.0
  **/
 @Configuration
+@EnableConfigurationProperties(HbaseProperties.class)
 public class HbaseConfig {
 
     @Value("${hbase.zookeeper.quorum}")
@@ -29,11 +32,25 @@ public class HbaseConfig {
     private String port;
 
     @Bean
-    public HbaseUtil getHbaseService(){
+    public HbaseUtil getHbaseService(HbaseProperties properties, ObjectProvider<MeterRegistry> registry){
+        return new HbaseUtil(createConfiguration(properties), properties, registry.getIfAvailable());
+    }
+
+    @Bean
+    public AsyncHbaseUtil getAsyncHbaseService(HbaseProperties properties, HbaseUtil hbaseUtil){
+        // 与 HbaseUtil 共享加盐策略、持久化级别和写入指标，同一张表的同步、异步读写行为一致
+        return new AsyncHbaseUtil(createConfiguration(properties), hbaseUtil);
+    }
+
+    private org.apache.hadoop.conf.Configuration createConfiguration(HbaseProperties properties) {
         org.apache.hadoop.conf.Configuration conf = HBaseConfiguration.create();
         conf.set("hbase.zookeeper.quorum", quorum);
         conf.set("hbase.zookeeper.port", port);
-        return new HbaseUtil(conf);
+        // hbase.config.* 下的配置原样透传给 HBase 客户端
+        if (properties.getConfig() != null) {
+            properties.getConfig().forEach(conf::set);
+        }
+        return conf;
     }
 
 //    @Bean("admin")
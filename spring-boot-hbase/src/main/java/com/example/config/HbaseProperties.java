@@ -1,8 +1,11 @@
 package com.example.config;
 
 import lombok.Data;
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Scan;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -11,9 +14,328 @@ import java.util.Map;
  * @create 2019-03-22 16:35
  * @Version 1.0
  **/
-//@Data
-//@ConfigurationProperties(prefix = "hbase")
+@Data
+@ConfigurationProperties(prefix = "hbase")
 public class HbaseProperties {
 
     private Map<String, String> config;
+
+    /**
+     * 连接池配置
+     */
+    private ConnectionPool connectionPool = new ConnectionPool();
+
+    /**
+     * 表是否存在、表结构缓存的有效期（毫秒），<= 0 表示不过期；表不存在的结果不缓存
+     */
+    private long metaCacheTtl = 60000;
+
+    /**
+     * getRowData、getColumnValue 的行缓存配置
+     */
+    private RowCache rowCache = new RowCache();
+
+    /**
+     * <表名, 行键加盐分桶数>，配置了的表读写时自动加盐
+     */
+    private Map<String, Integer> saltBuckets = new HashMap<>();
+
+    /**
+     * <表名, 写入持久化级别>，未配置的表使用表的默认级别（通常为 SYNC_WAL）；
+     * 可以从源数据重建的派生表可配置 ASYNC_WAL 或 SKIP_WAL 换取写吞吐
+     */
+    private Map<String, Durability> durability = new HashMap<>();
+
+    /**
+     * 副本读、对冲读配置
+     */
+    private ReplicaRead replicaRead = new ReplicaRead();
+
+    /**
+     * BufferedMutator 批量写配置
+     */
+    private Writer writer = new Writer();
+
+    /**
+     * Scan 调优配置
+     */
+    private ScanConfig scan = new ScanConfig();
+
+    /**
+     * 按 region 并行 scan 配置
+     */
+    private ParallelScan parallelScan = new ParallelScan();
+
+    /**
+     * HFile bulk load 配置
+     */
+    private BulkLoad bulkLoad = new BulkLoad();
+
+    /**
+     * HbaseUtil 操作耗时、吞吐指标配置
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 计数器累加合并缓冲区配置
+     */
+    private IncrementBuffer incrementBuffer = new IncrementBuffer();
+
+    @Data
+    public static class ConnectionPool {
+
+        /**
+         * Connection 数，1 表示所有线程共享一个连接
+         */
+        private int size = 1;
+
+        /**
+         * 请求分配到连接的方式
+         */
+        private StripeBy stripeBy = StripeBy.THREAD;
+
+        /**
+         * 连接创建失败后的重试间隔（毫秒），间隔内的请求直接失败
+         */
+        private long retryInterval = 5000;
+
+        public enum StripeBy {
+
+            /**
+             * 按线程分配，同一线程始终使用同一个连接
+             */
+            THREAD,
+
+            /**
+             * 按表分配，同一张表始终使用同一个连接
+             */
+            TABLE
+        }
+    }
+
+    @Data
+    public static class ReplicaRead {
+
+        /**
+         * <表名, region 副本数>，副本数 > 1 的表开启对冲读，createTable 时按副本数建表；
+         * 对冲读可能返回副本上尚未同步的旧数据，只配置能容忍短暂不一致的表
+         */
+        private Map<String, Integer> tables = new HashMap<>();
+
+        /**
+         * 主副本耗时超过最近耗时的该分位数时，向一个从副本发起对冲读
+         */
+        private double hedgePercentile = 0.95;
+
+        /**
+         * 对冲等待时间下限（毫秒），避免分位数很低时几乎每次都对冲
+         */
+        private long minHedgeDelay = 2;
+
+        /**
+         * 对冲等待时间上限（毫秒），耗时样本不足时也使用该值
+         */
+        private long maxHedgeDelay = 50;
+
+        /**
+         * 每张表保留的主副本耗时样本数，按最近的样本计算分位数
+         */
+        private int window = 1000;
+
+        /**
+         * 执行对冲读的线程数，线程用完时在调用线程中直接读取主副本，不对冲
+         */
+        private int threads = 32;
+    }
+
+    @Data
+    public static class Writer {
+
+        /**
+         * 客户端写缓冲区大小（字节），缓冲区写满后触发一次批量提交
+         */
+        private long bufferSize = 4 * 1024 * 1024;
+
+        /**
+         * 定时刷写间隔（毫秒），缓冲区中的数据最多停留这么久，<= 0 表示不定时刷写
+         */
+        private long flushInterval = 1000;
+
+        /**
+         * putRows 每次提交给 BufferedMutator 的 Put 数量
+         */
+        private int batchSize = 1000;
+    }
+
+    @Data
+    public static class IncrementBuffer {
+
+        /**
+         * 定时刷写间隔（毫秒），累加最多在客户端停留这么久，<= 0 表示只在缓冲区满、手动刷写或关闭时刷写
+         */
+        private long flushInterval = 1000;
+
+        /**
+         * 缓冲区中的单元格数达到该值时立即触发一次刷写
+         */
+        private int maxPendingCells = 100000;
+
+        /**
+         * 每次 batch 提交的 Increment 数（每行一个）
+         */
+        private int batchSize = 1000;
+
+        /**
+         * 分段数，并发累加的线程多时调大
+         */
+        private int stripes = 16;
+    }
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * 是否发布耗时分布直方图，供 Prometheus 等按桶聚合计算分位数
+         */
+        private boolean percentileHistogram = true;
+
+        /**
+         * 客户端计算的分位数，如 0.5,0.95,0.99，不能跨实例聚合
+         */
+        private double[] percentiles = new double[0];
+
+        /**
+         * 是否开启 HBase 客户端自带的 MetricsConnection（RPC 耗时、meta 缓存命中等），通过 JMX 发布
+         */
+        private boolean clientMetricsEnabled = false;
+    }
+
+    @Data
+    public static class BulkLoad {
+
+        /**
+         * 生成 HFile 的暂存目录，RegionServer 必须能访问，集群环境使用 HDFS 路径，如 hdfs:///tmp/hbase-bulkload
+         */
+        private String stagingDir = "/tmp/hbase-bulkload";
+
+        /**
+         * 排序缓冲区大小（字节），缓冲区满后排序并溢写为一个有序段，越大有序段越少、最终归并越快
+         */
+        private long sortBufferSize = 256 * 1024 * 1024;
+
+        /**
+         * 有序段临时文件的本地目录，需要能容纳一次导入的全部数据，为空时使用 java.io.tmpdir
+         */
+        private String spillDir;
+    }
+
+    @Data
+    public static class RowCache {
+
+        /**
+         * 缓存最大字节数，所有表共享
+         */
+        private long maxBytes = 64 * 1024 * 1024;
+
+        /**
+         * <表名, 过期时间（毫秒）>，只缓存这里配置的表，适合读多写少的表
+         */
+        private Map<String, Long> tables = new HashMap<>();
+    }
+
+    @Data
+    public static class ParallelScan {
+
+        /**
+         * 执行子 scan 的线程数，即同时打开的 region scanner 数
+         */
+        private int threads = 16;
+
+        /**
+         * 子 scan 已读取、等待调用方消费的最大行数
+         */
+        private int queueSize = 1000;
+    }
+
+    @Data
+    public static class ScanConfig {
+
+        /**
+         * getResultScanner* 等方法默认使用的 profile，为空时使用客户端默认参数
+         */
+        private String defaultProfile = ScanProfile.INTERACTIVE;
+
+        /**
+         * 自定义 profile，与同名内置 profile 合并，只覆盖配置了的项，如只调大 bulk-export 的 caching
+         */
+        private Map<String, ScanProfile> profiles = new HashMap<>();
+    }
+
+    @Data
+    public static class ScanProfile {
+
+        public static final String INTERACTIVE = "interactive";
+        public static final String BULK_EXPORT = "bulk-export";
+        public static final String WIDE_ROW = "wide-row";
+
+        /**
+         * 每次 RPC 返回的行数
+         */
+        private Integer caching;
+
+        /**
+         * 每个 Result 最多包含的列数，宽行会被拆成多个 Result 返回
+         */
+        private Integer batch;
+
+        /**
+         * 每次 RPC 返回的最大字节数
+         */
+        private Long maxResultSize;
+
+        /**
+         * 是否将读到的 block 放入 RegionServer 的 BlockCache
+         */
+        private Boolean cacheBlocks;
+
+        /**
+         * 读取方式：PREAD 适合小范围随机读，STREAM 适合大范围顺序读
+         */
+        private Scan.ReadType readType;
+
+        /**
+         * 内置 profile
+         * @return java.util.Map<java.lang.String,com.example.config.HbaseProperties.ScanProfile>
+         */
+        public static Map<String, ScanProfile> defaults() {
+            Map<String, ScanProfile> profiles = new HashMap<>();
+
+            // 交互式小范围查询：小分页 + PREAD
+            ScanProfile interactive = new ScanProfile();
+            interactive.setCaching(100);
+            interactive.setMaxResultSize(2L * 1024 * 1024);
+            interactive.setCacheBlocks(true);
+            interactive.setReadType(Scan.ReadType.PREAD);
+            profiles.put(INTERACTIVE, interactive);
+
+            // 批量导出：大分页 + 不污染 BlockCache + STREAM
+            ScanProfile bulkExport = new ScanProfile();
+            bulkExport.setCaching(5000);
+            bulkExport.setMaxResultSize(32L * 1024 * 1024);
+            bulkExport.setCacheBlocks(false);
+            bulkExport.setReadType(Scan.ReadType.STREAM);
+            profiles.put(BULK_EXPORT, bulkExport);
+
+            // 宽行：限制每个 Result 的列数，避免单行撑爆内存
+            ScanProfile wideRow = new ScanProfile();
+            wideRow.setCaching(20);
+            wideRow.setBatch(1000);
+            wideRow.setMaxResultSize(8L * 1024 * 1024);
+            wideRow.setCacheBlocks(false);
+            wideRow.setReadType(Scan.ReadType.STREAM);
+            profiles.put(WIDE_ROW, wideRow);
+
+            return profiles;
+        }
+    }
 }
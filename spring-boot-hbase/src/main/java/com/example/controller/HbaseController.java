@@ -1,10 +1,191 @@
 package com.example.controller;
 
+import com.example.model.HbaseRow;
+import com.example.util.HbaseQuery;
+import com.example.util.HbaseRowCallback;
+import com.example.util.HbaseUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
 /**
  * @ClassName HbaseController
- * @Describe
+ * @Describe 查询接口，multi-get 和 scan 以 NDJSON（每行一个 JSON）流式返回：
+ * 每读到一行就写出，第一行立即刷出，服务端不缓存完整结果；
+ * 客户端读得慢时写出阻塞，scan 随之暂停，不会在内存中堆积
  * @create 2019-03-22 16:32
  * @Version 1.0
  **/
+@Slf4j
+@RestController
+@RequestMapping("/hbase/{tableName}")
 public class HbaseController {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    /**
+     * 每写出多少行刷一次输出流
+     */
+    private static final int FLUSH_ROWS = 100;
+
+    /**
+     * multi-get 每批查询的行数
+     */
+    private static final int MULTI_GET_BATCH = 100;
+
+    private static final byte[] NEW_LINE = {'\n'};
+
+    @Autowired
+    private HbaseUtil hbaseUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 查询一行
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @return org.springframework.http.ResponseEntity<com.example.model.HbaseRow> 行不存在时返回 404，查询失败时返回 500
+     */
+    @GetMapping("/rows/{rowKey}")
+    public ResponseEntity<HbaseRow> get(@PathVariable String tableName, @PathVariable String rowKey) {
+        HbaseRow[] found = {null};
+        if (!hbaseUtil.getRows(tableName, Collections.singletonList(rowKey), row -> {
+            found[0] = row;
+            return true;
+        })) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        if (found[0] == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(found[0]);
+    }
+
+    /**
+     * 批量查询多行，按批 multi-get，每批查询完即写出
+     * @param tableName 表名
+     * @param rowKeys 行键
+     * @return org.springframework.http.ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> 不存在的行不返回，
+     * 某一批查询失败时以 {"error":...} 行结束
+     */
+    @PostMapping(value = "/rows", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> multiGet(@PathVariable String tableName,
+                                                          @RequestBody List<String> rowKeys) {
+        return ndjson(out -> {
+            RowWriter writer = new RowWriter(out);
+            for (int from = 0; from < rowKeys.size(); from += MULTI_GET_BATCH) {
+                List<String> batch = rowKeys.subList(from, Math.min(rowKeys.size(), from + MULTI_GET_BATCH));
+                if (!writer.stream(tableName, callback -> hbaseUtil.getRows(tableName, batch, callback))) {
+                    // 响应已经开始，只能在末尾写出错误行，之后的批次不再查询
+                    writer.writeError("multi-get 失败,tableName:" + tableName);
+                    break;
+                }
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * 范围或前缀 scan
+     * @param tableName 表名
+     * @param start 起始行键（包含）
+     * @param stop 结束行键（不包含）
+     * @param prefix 行键前缀，与 start、stop 同时指定时取交集
+     * @param limit 最多返回的行数，<= 0 表示不限制
+     * @return org.springframework.http.ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> 失败时以 {"error":...} 行结束
+     */
+    @GetMapping(value = "/scan", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> scan(@PathVariable String tableName,
+                                                      @RequestParam(required = false) String start,
+                                                      @RequestParam(required = false) String stop,
+                                                      @RequestParam(required = false) String prefix,
+                                                      @RequestParam(defaultValue = "0") int limit) {
+        // 前缀与 start、stop 取交集编译为起止行键；加盐表的每个分桶各自 limit，由 query 在客户端截断
+        HbaseQuery query = new HbaseQuery().range(start, stop).prefix(prefix);
+        if (limit > 0) {
+            query.limit(limit);
+        }
+
+        return ndjson(out -> {
+            RowWriter writer = new RowWriter(out);
+            if (!writer.stream(tableName, callback -> hbaseUtil.query(tableName, query, callback))) {
+                // 响应已经开始，只能在末尾写出错误行
+                writer.writeError("scan 失败,tableName:" + tableName);
+            }
+            out.flush();
+        });
+    }
+
+    private static ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * 逐行写出 NDJSON，第一行和之后每 FLUSH_ROWS 行刷一次
+     */
+    private class RowWriter {
+
+        private final OutputStream out;
+        private long rows;
+
+        private RowWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        private void write(HbaseRow row) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write(NEW_LINE);
+            if (++rows == 1 || rows % FLUSH_ROWS == 0) {
+                out.flush();
+            }
+        }
+
+        /**
+         * 行回调，写出失败（客户端断开）时抛出 UncheckedIOException 结束查询
+         */
+        private boolean writeRow(HbaseRow row) {
+            try {
+                write(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }
+
+        /**
+         * 执行一次查询，每行写出
+         * @param tableName 表名
+         * @param query 以行回调执行查询，返回是否成功
+         * @return boolean 查询是否成功
+         * @throws IOException 客户端断开
+         */
+        private boolean stream(String tableName, Function<HbaseRowCallback, Boolean> query) throws IOException {
+            try {
+                return query.apply(this::writeRow);
+            } catch (UncheckedIOException e) {
+                log.debug(MessageFormat.format("客户端断开,tableName:{0}", tableName), e);
+                throw e.getCause();
+            }
+        }
+
+        private void writeError(String message) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(Collections.singletonMap("error", message)));
+            out.write(NEW_LINE);
+        }
+    }
 }
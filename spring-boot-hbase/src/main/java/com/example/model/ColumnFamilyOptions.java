@@ -0,0 +1,56 @@
+package com.example.model;
+
+import lombok.Data;
+import org.apache.hadoop.hbase.io.compress.Compression;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.regionserver.BloomType;
+
+/**
+ * @ClassName ColumnFamilyOptions
+ * @Describe 列族的存储、读性能相关参数，为 null 的参数保持 HBase 默认值（修改已有列族时保持原值）
+ * @create 2026-10-18 16:30
+ * @Version 1.0
+ **/
+@Data
+public class ColumnFamilyOptions {
+
+    /**
+     * 压缩算法，如 SNAPPY、LZ4、ZSTD，需要 RegionServer 上有对应的本地库
+     */
+    private Compression.Algorithm compression;
+
+    /**
+     * 布隆过滤器：ROW 适合按行读，ROWCOL 适合按行 + 列读
+     */
+    private BloomType bloomFilter;
+
+    /**
+     * HFile block 大小（字节），随机读多时调小，顺序扫描多时调大
+     */
+    private Integer blockSize;
+
+    /**
+     * block 编码，如 FAST_DIFF、PREFIX，行键、列名重复度高时收益明显
+     */
+    private DataBlockEncoding dataBlockEncoding;
+
+    /**
+     * 是否优先保留在 BlockCache 中，适合小而热的列族
+     */
+    private Boolean inMemory;
+
+    /**
+     * 数据过期时间（秒）
+     */
+    private Integer timeToLive;
+
+    /**
+     * 最多保留的版本数
+     */
+    private Integer maxVersions;
+
+    /**
+     * 读取时是否将 block 放入 BlockCache，只做全表扫描的列族可以关闭
+     */
+    private Boolean blockCacheEnabled;
+}
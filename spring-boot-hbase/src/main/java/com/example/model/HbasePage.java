@@ -0,0 +1,26 @@
+package com.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @ClassName HbasePage
+ * @Describe 分页查询的一页数据：按行键升序的行 + 下一页的续查令牌
+ * @create 2026-10-18 16:50
+ * @Version 1.0
+ **/
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HbasePage {
+
+    private List<HbaseRow> rows;
+
+    /**
+     * 下一页的令牌，原样传回即可继续查询，为 null 表示没有下一页
+     */
+    private String nextToken;
+}
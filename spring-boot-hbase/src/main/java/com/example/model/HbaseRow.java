@@ -0,0 +1,23 @@
+package com.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * @ClassName HbaseRow
+ * @Describe 一行数据：行键 + <列名, 列值>
+ * @create 2026-10-18 14:10
+ * @Version 1.0
+ **/
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HbaseRow {
+
+    private String rowKey;
+
+    private Map<String, String> columns;
+}
@@ -0,0 +1,28 @@
+package com.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * @ClassName HbaseTimelineRow
+ * @Describe 副本读的一行数据：行键 + <列名, 列值> + 是否来自从副本（可能不是最新数据）
+ * @create 2026-10-18 21:00
+ * @Version 1.0
+ **/
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HbaseTimelineRow {
+
+    private String rowKey;
+
+    private Map<String, String> columns;
+
+    /**
+     * 为 true 时数据来自从副本，可能落后于主副本
+     */
+    private boolean stale;
+}
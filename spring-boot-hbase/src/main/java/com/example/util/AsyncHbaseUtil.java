@@ -0,0 +1,282 @@
+package com.example.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @ClassName AsyncHbaseUtil
+ * @Describe 基于 AsyncConnection 的非阻塞 HBase 操作，所有方法立即返回 CompletableFuture，
+ * 等待 HBase 响应期间不占用调用线程
+ * @create 2026-10-18 16:05
+ * @Version 1.0
+ **/
+@Slf4j
+public class AsyncHbaseUtil implements Closeable {
+
+    private final CompletableFuture<AsyncConnection> connection;
+
+    /**
+     * 同步工具类，共享其行键加盐策略（hbase.salt-buckets 和 registerRowKeySalter 注册的）、
+     * 写入持久化级别（hbase.durability）和写入指标，为 null 时不加盐、使用表的默认级别、不记录指标
+     */
+    private final HbaseUtil hbaseUtil;
+
+    /**
+     * scan 回调执行的线程池，避免在 RPC 线程中执行业务逻辑
+     */
+    private final ExecutorService callbackExecutor;
+
+    /**
+     * 不加盐，行键原样读写
+     * @param conf HBase 配置
+     */
+    public AsyncHbaseUtil(Configuration conf) {
+        this(conf, (HbaseUtil) null);
+    }
+
+    /**
+     * 不加盐，行键原样读写
+     * @param conf HBase 配置
+     * @param callbackExecutor scan 回调线程池
+     */
+    public AsyncHbaseUtil(Configuration conf, ExecutorService callbackExecutor) {
+        this(conf, null, callbackExecutor);
+    }
+
+    /**
+     * @param conf HBase 配置
+     * @param hbaseUtil 共享其加盐策略、持久化级别配置和写入指标，加盐表的读写与 HbaseUtil 使用相同的物理行键
+     */
+    public AsyncHbaseUtil(Configuration conf, HbaseUtil hbaseUtil) {
+        this(conf, hbaseUtil, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param conf HBase 配置
+     * @param hbaseUtil 共享其加盐策略、持久化级别配置和写入指标，为 null 时不加盐
+     * @param callbackExecutor scan 回调线程池
+     */
+    public AsyncHbaseUtil(Configuration conf, HbaseUtil hbaseUtil, ExecutorService callbackExecutor) {
+        this.hbaseUtil = hbaseUtil;
+        this.callbackExecutor = callbackExecutor;
+        this.connection = ConnectionFactory.createAsyncConnection(conf);
+        this.connection.whenComplete((c, e) -> {
+            if (e != null) {
+                log.error("获取 HBase 异步连接失败", e);
+            }
+        });
+    }
+
+    /**
+     * 根据 tableName 和 rowKey 精确查询一行的数据
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @return java.util.concurrent.CompletableFuture<java.util.Map<java.lang.String,java.lang.String>> 行不存在时为空 Map
+     */
+    public CompletableFuture<Map<String, String>> getRowData(String tableName, String rowKey) {
+        return connection
+                .thenCompose(c -> c.getTable(TableName.valueOf(tableName)).get(new Get(Bytes.toBytes(saltedKey(tableName, rowKey)))))
+                .thenApply(r -> r == null || r.isEmpty() ? new HashMap<String, String>() : HbaseUtil.toColumnMap(r))
+                .whenComplete((r, e) -> {
+                    if (e != null) {
+                        log.error(MessageFormat.format("查询一行的数据失败,tableName:{0},rowKey:{1}"
+                                , tableName, rowKey), e);
+                    }
+                });
+    }
+
+    /**
+     * 根据 tableName 和多个 rowKey 批量查询多行数据
+     * @param tableName 表名
+     * @param rowKeys 行键集合
+     * @param familyName 列族名，为空时查询整行
+     * @param columns 列名，为空时查询整个列族
+     * @return java.util.concurrent.CompletableFuture<java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>>> 按 rowKeys 顺序返回，不存在的行不返回
+     */
+    public CompletableFuture<Map<String, Map<String, String>>> getRows(String tableName, Collection<String> rowKeys, String familyName, String... columns) {
+        List<Get> gets = new ArrayList<>(rowKeys.size());
+        for (String rowKey : rowKeys) {
+            gets.add(HbaseUtil.buildGet(saltedKey(tableName, rowKey), familyName, columns));
+        }
+
+        return connection
+                .thenCompose(c -> c.getTable(TableName.valueOf(tableName)).getAll(gets))
+                .thenApply(results -> {
+                    Map<String, Map<String, String>> result = new LinkedHashMap<>();
+                    for (Result r : results) {
+                        if (r != null && !r.isEmpty()) {
+                            result.put(logicalKey(tableName, r.getRow()), HbaseUtil.toColumnMap(r));
+                        }
+                    }
+                    return result;
+                })
+                .whenComplete((r, e) -> {
+                    if (e != null) {
+                        log.error(MessageFormat.format("批量查询多行数据失败,tableName:{0},rowKeys:{1}"
+                                , tableName, rowKeys.size()), e);
+                    }
+                });
+    }
+
+    /**
+     * 为表添加 or 更新数据
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyName 列族名
+     * @param columns 列名数组
+     * @param values 列值的数据
+     * @return java.util.concurrent.CompletableFuture<java.lang.Void>
+     */
+    public CompletableFuture<Void> putData(String tableName, String rowKey, String familyName, String[] columns, String[] values) {
+        return putData(tableName, rowKey, familyName, columns, values, null);
+    }
+
+    /**
+     * 为表添加 or 更新数据，指定持久化级别
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyName 列族名
+     * @param columns 列名数组
+     * @param values 列值的数据
+     * @param durability 持久化级别，为 null 时使用 hbase.durability 中该表的配置
+     * @return java.util.concurrent.CompletableFuture<java.lang.Void>
+     */
+    public CompletableFuture<Void> putData(String tableName, String rowKey, String familyName, String[] columns, String[] values,
+                                           Durability durability) {
+        Put put = HbaseUtil.buildPut(saltedKey(tableName, rowKey), familyName, columns, values);
+        put.setDurability(durabilityOf(tableName, durability));
+        return connection
+                .thenCompose(c -> c.getTable(TableName.valueOf(tableName)).put(put))
+                .whenComplete((r, e) -> {
+                    if (e != null) {
+                        log.error(MessageFormat.format("为表添加 or 更新数据失败,tableName:{0},rowKey:{1},familyName:{2}"
+                                , tableName, rowKey, familyName), e);
+                    } else {
+                        recordWrite("put", tableName, put.getDurability());
+                    }
+                });
+    }
+
+    /**
+     * 根据 rowKey 删除指定的行
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @return java.util.concurrent.CompletableFuture<java.lang.Void>
+     */
+    public CompletableFuture<Void> deleteRow(String tableName, String rowKey) {
+        Delete delete = new Delete(Bytes.toBytes(saltedKey(tableName, rowKey)));
+        delete.setDurability(durabilityOf(tableName, null));
+        return connection
+                .thenCompose(c -> c.getTable(TableName.valueOf(tableName)).delete(delete))
+                .whenComplete((r, e) -> {
+                    if (e != null) {
+                        log.error(MessageFormat.format("删除指定的行失败,tableName:{0},rowKey:{1}", tableName, rowKey), e);
+                    } else {
+                        recordWrite("delete", tableName, delete.getDurability());
+                    }
+                });
+    }
+
+    /**
+     * 异步流式遍历数据，每返回一行在回调线程池中回调一次；
+     * 加盐表交给 HbaseUtil 分桶并发 scan、按逻辑行键归并，遍历期间占用回调线程池的一个线程
+     * @param tableName 表名
+     * @param scan 过滤条件，起止行键为逻辑行键
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return java.util.concurrent.CompletableFuture<java.lang.Void> 遍历结束（含提前结束）时完成
+     */
+    public CompletableFuture<Void> scan(String tableName, Scan scan, HbaseRowCallback callback) {
+        if (hbaseUtil != null && hbaseUtil.isSalted(tableName)) {
+            return CompletableFuture.runAsync(() -> {
+                if (!hbaseUtil.scanRows(tableName, scan, callback)) {
+                    throw new CompletionException(new IOException("分桶遍历查询数据失败,tableName:" + tableName));
+                }
+            }, callbackExecutor);
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        connection.whenComplete((c, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+                return;
+            }
+            c.getTable(TableName.valueOf(tableName), callbackExecutor).scan(scan, new ScanResultConsumer() {
+                @Override
+                public boolean onNext(Result result) {
+                    if (result.isEmpty()) {
+                        return true;
+                    }
+                    try {
+                        if (callback.onRow(HbaseUtil.toHbaseRow(result))) {
+                            return true;
+                        }
+                    } catch (RuntimeException e) {
+                        future.completeExceptionally(e);
+                        return false;
+                    }
+                    future.complete(null);
+                    return false;
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    log.error(MessageFormat.format("遍历查询指定表中的所有数据失败,tableName:{0}", tableName), e);
+                    future.completeExceptionally(e);
+                }
+
+                @Override
+                public void onComplete() {
+                    future.complete(null);
+                }
+            });
+        });
+        return future;
+    }
+
+    private String saltedKey(String tableName, String rowKey) {
+        return hbaseUtil == null ? rowKey : hbaseUtil.saltedKey(tableName, rowKey);
+    }
+
+    private String logicalKey(String tableName, byte[] row) {
+        return hbaseUtil == null ? Bytes.toString(row) : hbaseUtil.logicalKey(tableName, row);
+    }
+
+    private Durability durabilityOf(String tableName, Durability durability) {
+        if (hbaseUtil != null) {
+            return hbaseUtil.durabilityOf(tableName, durability);
+        }
+        return durability == null ? Durability.USE_DEFAULT : durability;
+    }
+
+    private void recordWrite(String operation, String tableName, Durability durability) {
+        if (hbaseUtil != null) {
+            hbaseUtil.recordWrite(operation, tableName, durability, 1);
+        }
+    }
+
+    /**
+     * 关闭连接
+     */
+    @Override
+    public void close() {
+        connection.thenAccept(c -> {
+            try {
+                c.close();
+            } catch (IOException e) {
+                log.error("关闭 HBase 异步连接失败", e);
+            }
+        });
+    }
+}
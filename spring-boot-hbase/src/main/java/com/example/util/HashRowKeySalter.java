@@ -0,0 +1,51 @@
+package com.example.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @ClassName HashRowKeySalter
+ * @Describe 按逻辑行键的 hash 分桶，前缀为定长十进制桶号加 "_"，如 16 个桶时为 "00_" ~ "15_"
+ * @create 2026-10-18 16:20
+ * @Version 1.0
+ **/
+public class HashRowKeySalter implements RowKeySalter {
+
+    private final int buckets;
+    private final List<String> prefixes;
+    private final int prefixLength;
+
+    /**
+     * @param buckets 分桶数，建议与预分区数一致
+     */
+    public HashRowKeySalter(int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("分桶数必须大于 0,buckets:" + buckets);
+        }
+        this.buckets = buckets;
+
+        int width = String.valueOf(buckets - 1).length();
+        List<String> list = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            list.add(String.format("%0" + width + "d_", i));
+        }
+        this.prefixes = Collections.unmodifiableList(list);
+        this.prefixLength = width + 1;
+    }
+
+    @Override
+    public String salt(String rowKey) {
+        return prefixes.get((rowKey.hashCode() & Integer.MAX_VALUE) % buckets) + rowKey;
+    }
+
+    @Override
+    public int getPrefixLength() {
+        return prefixLength;
+    }
+
+    @Override
+    public List<String> getPrefixes() {
+        return prefixes;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.util;
+
+/**
+ * @ClassName HbaseColumnType
+ * @Describe 列值的存储格式
+ * @create 2026-10-18 15:40
+ * @Version 1.0
+ **/
+public enum HbaseColumnType {
+
+    /**
+     * UTF-8 字符串
+     */
+    STRING,
+
+    /**
+     * Bytes.toBytes(long) 写入的 8 字节定长整数
+     */
+    LONG,
+
+    /**
+     * Bytes.toBytes(int) 写入的 4 字节定长整数
+     */
+    INT,
+
+    /**
+     * Bytes.toBytes(double) 写入的 8 字节浮点数
+     */
+    DOUBLE,
+
+    /**
+     * 以十进制文本写入的整数，如 putData 写入的 "40866"
+     */
+    TEXT_LONG,
+
+    /**
+     * 以十进制文本写入的浮点数，如 putData 写入的 "0.9416"
+     */
+    TEXT_DOUBLE
+}
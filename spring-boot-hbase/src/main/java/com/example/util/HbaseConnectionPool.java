@@ -0,0 +1,201 @@
+package com.example.util;
+
+import com.example.config.HbaseProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @ClassName HbaseConnectionPool
+ * @Describe 多个 Connection 组成的连接池，按线程或按表将请求分散到不同的 Connection，降低单个连接 RPC 层的竞争；
+ * 连接在首次使用时创建，每次取用时检查连接是否已关闭或中止，不可用时重新创建；
+ * 创建失败后在重试间隔内直接失败，避免每个请求都去连接 ZooKeeper
+ * @create 2026-10-18 20:10
+ * @Version 1.0
+ **/
+@Slf4j
+public class HbaseConnectionPool implements Closeable {
+
+    public static final String CONNECTIONS = "hbase.client.connections";
+    public static final String REQUESTS = "hbase.client.connection.requests";
+    public static final String CREATED = "hbase.client.connection.created";
+    public static final String FAILURES = "hbase.client.connection.failures";
+
+    private final Configuration conf;
+    private final HbaseProperties.ConnectionPool config;
+    private final Slot[] slots;
+    private volatile boolean closed;
+
+    /**
+     * @param conf HBase 配置
+     * @param config 连接池配置
+     */
+    public HbaseConnectionPool(Configuration conf, HbaseProperties.ConnectionPool config) {
+        this.conf = conf;
+        this.config = config;
+        this.slots = new Slot[Math.max(1, config.getSize())];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(i);
+        }
+    }
+
+    /**
+     * 取一个可用的连接，连接由连接池管理，调用方不能关闭
+     * @param tableName 表名，按表分配时使用，为 null 时使用第一个连接
+     * @return org.apache.hadoop.hbase.client.Connection
+     * @throws IOException 连接创建失败
+     */
+    public Connection get(String tableName) throws IOException {
+        if (closed) {
+            throw new IOException("HBase 连接池已关闭");
+        }
+        Slot slot = slots[index(tableName)];
+        slot.requests.increment();
+        Connection connection = slot.connection;
+        if (isHealthy(connection)) {
+            return connection;
+        }
+        return slot.connect();
+    }
+
+    /**
+     * @return int 连接数上限
+     */
+    public int getSize() {
+        return slots.length;
+    }
+
+    /**
+     * @return int 已创建且可用的连接数
+     */
+    public int getOpenConnections() {
+        int open = 0;
+        for (Slot slot : slots) {
+            if (isHealthy(slot.connection)) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    /**
+     * 发布连接池指标：可用连接数、每个连接分到的请求数、连接创建次数和失败次数
+     * @param registry 指标注册表
+     */
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(CONNECTIONS, this, HbaseConnectionPool::getOpenConnections)
+                .tag("state", "open")
+                .register(registry);
+        Gauge.builder(CONNECTIONS, this, HbaseConnectionPool::getSize)
+                .tag("state", "max")
+                .register(registry);
+        for (Slot slot : slots) {
+            FunctionCounter.builder(REQUESTS, slot.requests, LongAdder::sum)
+                    .tag("slot", String.valueOf(slot.index))
+                    .register(registry);
+            FunctionCounter.builder(CREATED, slot.created, LongAdder::sum)
+                    .tag("slot", String.valueOf(slot.index))
+                    .register(registry);
+            FunctionCounter.builder(FAILURES, slot.failures, LongAdder::sum)
+                    .tag("slot", String.valueOf(slot.index))
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 关闭所有连接
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Slot slot : slots) {
+            slot.close();
+        }
+    }
+
+    private int index(String tableName) {
+        if (slots.length == 1) {
+            return 0;
+        }
+        if (config.getStripeBy() == HbaseProperties.ConnectionPool.StripeBy.TABLE) {
+            return tableName == null ? 0 : (tableName.hashCode() & Integer.MAX_VALUE) % slots.length;
+        }
+        return (int) (Thread.currentThread().getId() % slots.length);
+    }
+
+    private static boolean isHealthy(Connection connection) {
+        return connection != null && !connection.isClosed() && !connection.isAborted();
+    }
+
+    private final class Slot {
+
+        private final int index;
+        private volatile Connection connection;
+
+        /**
+         * 最近一次创建失败的时间和原因
+         */
+        private long lastFailureTime;
+        private IOException lastFailure;
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder created = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private Slot(int index) {
+            this.index = index;
+        }
+
+        private synchronized Connection connect() throws IOException {
+            // 与 close 互斥，关闭后不再创建连接
+            if (closed) {
+                throw new IOException("HBase 连接池已关闭");
+            }
+            if (isHealthy(connection)) {
+                return connection;
+            }
+            if (connection != null) {
+                log.warn(MessageFormat.format("HBase 连接不可用，重新创建,slot:{0}", index));
+                close();
+            }
+            long now = System.currentTimeMillis();
+            if (lastFailure != null && now - lastFailureTime < config.getRetryInterval()) {
+                throw new IOException(MessageFormat.format("获取 HBase 连接失败,{0} 毫秒后重试,slot:{1}",
+                        config.getRetryInterval() - (now - lastFailureTime), index), lastFailure);
+            }
+            try {
+                connection = ConnectionFactory.createConnection(conf);
+                lastFailure = null;
+                created.increment();
+                return connection;
+            } catch (IOException e) {
+                lastFailureTime = now;
+                lastFailure = e;
+                failures.increment();
+                log.error(MessageFormat.format("获取 HBase 连接失败,slot:{0}", index), e);
+                throw e;
+            }
+        }
+
+        private synchronized void close() {
+            if (connection == null) {
+                return;
+            }
+            try {
+                connection.close();
+            } catch (IOException e) {
+                log.error("关闭 HBase 连接失败", e);
+            }
+            connection = null;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.CellComparator;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptor;
+import org.apache.hadoop.hbase.io.hfile.HFileContext;
+import org.apache.hadoop.hbase.io.hfile.HFileContextBuilder;
+import org.apache.hadoop.hbase.regionserver.HStoreFile;
+import org.apache.hadoop.hbase.regionserver.StoreFileWriter;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * @ClassName HbaseHFileWriter
+ * @Describe 将一个列族的数据写成按 region 边界切分的 HFile，供 bulk load 使用；
+ * 数据先在内存中缓冲，缓冲区满后排序、去重并作为一个有序段溢写到本地临时文件，
+ * 关闭时将所有有序段 k 路归并，每个 region 只写出一个 HFile，
+ * 不会超过 LoadIncrementalHFiles 对每个 region 每个列族 HFile 数的限制
+ * （hbase.mapreduce.bulkload.max.hfiles.perRegion.perFamily，默认 32）；
+ * 相同的 Cell 保留最后写入的一个，跨有序段同样成立
+ * @create 2026-10-18 17:30
+ * @Version 1.0
+ **/
+@Slf4j
+class HbaseHFileWriter implements Closeable {
+
+    /**
+     * 每个缓冲的 KeyValue 除序列化数据以外的估算开销（字节）
+     */
+    private static final int CELL_OVERHEAD = 64;
+
+    /**
+     * 读写有序段文件的缓冲区大小（字节）
+     */
+    private static final int RUN_IO_BUFFER = 64 * 1024;
+
+    private final Configuration conf;
+    private final FileSystem fs;
+    private final Path familyDir;
+    private final ColumnFamilyDescriptor family;
+    private final HFileContext fileContext;
+
+    /**
+     * region 起始行键，升序，第一个为空数组
+     */
+    private final byte[][] startKeys;
+    private final long bufferSize;
+    private final long timestamp;
+
+    /**
+     * 有序段临时文件所在目录
+     */
+    private final File spillDir;
+
+    private List<KeyValue> buffer = new ArrayList<>();
+    private long bufferedBytes;
+    private final List<File> runs = new ArrayList<>();
+    private int fileCount;
+    private boolean closed;
+
+    /**
+     * @param conf 配置
+     * @param outputDir bulk load 目录，HFile 写在其下的列族名子目录中
+     * @param family 列族描述，HFile 使用与列族相同的压缩、编码、block 大小和布隆过滤器
+     * @param startKeys region 起始行键
+     * @param bufferSize 排序缓冲区大小（字节）
+     * @param spillDir 有序段临时文件目录，本地磁盘需要能容纳全部导入数据
+     * @param timestamp 所有 Cell 的时间戳
+     * @throws IOException
+     */
+    HbaseHFileWriter(Configuration conf, Path outputDir, ColumnFamilyDescriptor family, byte[][] startKeys,
+                     long bufferSize, File spillDir, long timestamp) throws IOException {
+        this.conf = conf;
+        this.fs = outputDir.getFileSystem(conf);
+        this.familyDir = new Path(outputDir, family.getNameAsString());
+        this.family = family;
+        this.startKeys = startKeys.clone();
+        Arrays.sort(this.startKeys, Bytes.BYTES_COMPARATOR);
+        this.bufferSize = bufferSize;
+        this.spillDir = spillDir;
+        this.timestamp = timestamp;
+        this.fileContext = new HFileContextBuilder()
+                .withCompression(family.getCompressionType())
+                .withDataBlockEncoding(family.getDataBlockEncoding())
+                .withBlockSize(family.getBlocksize())
+                .withIncludesTags(true)
+                .build();
+        fs.mkdirs(familyDir);
+    }
+
+    /**
+     * 写入一个 Cell，缓冲区满时溢写为一个有序段
+     * @param row 行键
+     * @param qualifier 列名
+     * @param value 列值
+     * @throws IOException
+     */
+    void add(byte[] row, byte[] qualifier, byte[] value) throws IOException {
+        KeyValue kv = new KeyValue(row, family.getName(), qualifier, timestamp, KeyValue.Type.Put, value);
+        buffer.add(kv);
+        bufferedBytes += kv.getLength() + CELL_OVERHEAD;
+        if (bufferedBytes >= bufferSize) {
+            spill();
+        }
+    }
+
+    /**
+     * 已写出的 HFile 数
+     * @return int
+     */
+    int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * 归并所有有序段和缓冲区中剩余的数据，按 region 写出 HFile，删除临时文件
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        List<RunReader> readers = new ArrayList<>(runs.size() + 1);
+        try {
+            for (File run : runs) {
+                readers.add(new RunReader(run, readers.size()));
+            }
+            // 缓冲区中剩余的数据最后写入，作为最新的有序段
+            readers.add(new RunReader(sortAndDedup(buffer).iterator(), readers.size()));
+            buffer = new ArrayList<>();
+            bufferedBytes = 0;
+            write(merge(readers));
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+            deleteRuns();
+        }
+    }
+
+    /**
+     * 排序缓冲区并写到一个临时文件
+     */
+    private void spill() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        List<KeyValue> cells = sortAndDedup(buffer);
+        buffer = new ArrayList<>();
+        bufferedBytes = 0;
+
+        File run = File.createTempFile("hfile-run-", ".kv", spillDir);
+        runs.add(run);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), RUN_IO_BUFFER))) {
+            for (KeyValue kv : cells) {
+                out.writeInt(kv.getLength());
+                out.write(kv.getBuffer(), kv.getOffset(), kv.getLength());
+            }
+        }
+        log.debug(MessageFormat.format("溢写有序段,path:{0},cells:{1}", run, cells.size()));
+    }
+
+    /**
+     * 稳定排序，相同的 Cell 只保留最后写入的一个
+     */
+    private static List<KeyValue> sortAndDedup(List<KeyValue> cells) {
+        cells.sort(CellComparator.getInstance());
+        List<KeyValue> result = new ArrayList<>(cells.size());
+        for (int i = 0; i < cells.size(); i++) {
+            if (i + 1 < cells.size() && CellComparator.getInstance().compare(cells.get(i), cells.get(i + 1)) == 0) {
+                continue;
+            }
+            result.add(cells.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * k 路归并各有序段，相同的 Cell 取最新有序段中的一个
+     */
+    private static Iterator<KeyValue> merge(List<RunReader> readers) throws IOException {
+        // 相同 Cell 时序号大（后写入）的有序段排在前面
+        PriorityQueue<RunReader> heads = new PriorityQueue<>(Math.max(1, readers.size()), (a, b) -> {
+            int c = CellComparator.getInstance().compare(a.head, b.head);
+            return c != 0 ? c : Integer.compare(b.index, a.index);
+        });
+        for (RunReader reader : readers) {
+            if (reader.advance()) {
+                heads.add(reader);
+            }
+        }
+
+        return new Iterator<KeyValue>() {
+            private KeyValue next = poll();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public KeyValue next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                KeyValue kv = next;
+                next = poll();
+                return kv;
+            }
+
+            private KeyValue poll() {
+                if (heads.isEmpty()) {
+                    return null;
+                }
+                RunReader newest = heads.poll();
+                KeyValue kv = newest.head;
+                advance(newest);
+                // 更早的有序段中相同的 Cell 丢弃
+                while (!heads.isEmpty() && CellComparator.getInstance().compare(heads.peek().head, kv) == 0) {
+                    advance(heads.poll());
+                }
+                return kv;
+            }
+
+            private void advance(RunReader reader) {
+                try {
+                    if (reader.advance()) {
+                        heads.add(reader);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * 按 region 边界写出有序的 Cell，每个 region 一个 HFile
+     */
+    private void write(Iterator<KeyValue> cells) throws IOException {
+        StoreFileWriter writer = null;
+        byte[] regionStop = null;
+        try {
+            while (cells.hasNext()) {
+                KeyValue kv = cells.next();
+                if (writer == null || (regionStop != null
+                        && CellComparator.getInstance().compareRows(kv, regionStop, 0, regionStop.length) >= 0)) {
+                    closeWriter(writer);
+                    writer = null;
+                    writer = newWriter();
+                    regionStop = regionStopKey(kv);
+                }
+                writer.append(kv);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            closeWriter(writer);
+        }
+    }
+
+    /**
+     * Cell 所在 region 的结束行键
+     * @return byte[] 为 null 表示最后一个 region
+     */
+    private byte[] regionStopKey(KeyValue kv) {
+        int index = Arrays.binarySearch(startKeys, CellUtil.cloneRow(kv), Bytes.BYTES_COMPARATOR);
+        // 未命中时 -(插入点) - 1，所在 region 为插入点 - 1
+        int region = index >= 0 ? index : -index - 2;
+        return region + 1 < startKeys.length ? startKeys[region + 1] : null;
+    }
+
+    private StoreFileWriter newWriter() throws IOException {
+        fileCount++;
+        return new StoreFileWriter.Builder(conf, fs)
+                .withFilePath(new Path(familyDir, UUID.randomUUID().toString().replace("-", "")))
+                .withBloomType(family.getBloomFilterType())
+                .withFileContext(fileContext)
+                .build();
+    }
+
+    private void closeWriter(StoreFileWriter writer) throws IOException {
+        if (writer == null) {
+            return;
+        }
+        // 与 HFileOutputFormat2 写入相同的元数据
+        writer.appendFileInfo(HStoreFile.BULKLOAD_TIME_KEY, Bytes.toBytes(System.currentTimeMillis()));
+        writer.appendFileInfo(HStoreFile.BULKLOAD_TASK_KEY, Bytes.toBytes("HbaseHFileWriter"));
+        writer.appendFileInfo(HStoreFile.MAJOR_COMPACTION_KEY, Bytes.toBytes(false));
+        writer.appendFileInfo(HStoreFile.EXCLUDE_FROM_MINOR_COMPACTION_KEY, Bytes.toBytes(false));
+        writer.appendTrackedTimestampsToMetadata();
+        writer.close();
+        log.debug(MessageFormat.format("写出 HFile,path:{0}", writer.getPath()));
+    }
+
+    private void deleteRuns() {
+        for (File run : runs) {
+            if (!run.delete()) {
+                log.warn(MessageFormat.format("删除有序段临时文件失败,path:{0}", run));
+            }
+        }
+        runs.clear();
+    }
+
+    /**
+     * 一个有序段的顺序读取器，数据来自临时文件或内存
+     */
+    private static final class RunReader implements Closeable {
+
+        private final int index;
+        private final DataInputStream in;
+        private final Iterator<KeyValue> memory;
+        private KeyValue head;
+
+        private RunReader(File run, int index) throws IOException {
+            this.index = index;
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), RUN_IO_BUFFER));
+            this.memory = null;
+        }
+
+        private RunReader(Iterator<KeyValue> memory, int index) {
+            this.index = index;
+            this.in = null;
+            this.memory = memory;
+        }
+
+        /**
+         * 读取下一个 Cell 到 head
+         * @return boolean 是否还有数据
+         */
+        private boolean advance() throws IOException {
+            if (memory != null) {
+                head = memory.hasNext() ? memory.next() : null;
+                return head != null;
+            }
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                head = null;
+                return false;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            head = new KeyValue(bytes, 0, length);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.util;
+
+import com.example.config.HbaseProperties;
+import org.apache.hadoop.hbase.client.Consistency;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName HbaseHedgedReader
+ * @Describe 单行对冲读：先读主副本，超过该表主副本最近耗时的分位数仍未返回时，
+ * 以 TIMELINE 一致性向随机一个从副本再发一次，取先成功返回的结果，从副本的结果 isStale() 为 true。
+ * 未完成的请求不取消，主副本的耗时无论快慢都计入样本，分位数不会因对冲而偏低
+ * @create 2026-10-18 21:00
+ * @Version 1.0
+ **/
+class HbaseHedgedReader {
+
+    /**
+     * 每隔多少个样本重新计算一次分位数
+     */
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    private final HbaseProperties.ReplicaRead config;
+    private final HbaseMetrics metrics;
+    private final ConcurrentMap<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * 对冲读线程池，首次使用时创建
+     */
+    private volatile ThreadPoolExecutor executor;
+
+    /**
+     * 一次读取
+     */
+    interface GetCall {
+
+        Result get(Get get) throws IOException;
+    }
+
+    /**
+     * @param config 副本读配置
+     * @param metrics 指标
+     */
+    HbaseHedgedReader(HbaseProperties.ReplicaRead config, HbaseMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param tableName 表名
+     * @return boolean 表是否开启了对冲读
+     */
+    boolean isEnabled(String tableName) {
+        return replicas(tableName) > 1;
+    }
+
+    /**
+     * @param tableName 表名
+     * @return int 配置的 region 副本数，未配置时为 1
+     */
+    int replicas(String tableName) {
+        Integer replicas = config.getTables().get(tableName);
+        return replicas == null ? 1 : Math.max(1, replicas);
+    }
+
+    /**
+     * 对冲读一行
+     * @param tableName 表名
+     * @param get Get，不会被修改
+     * @param call 执行读取，每次调用使用单独的 Table
+     * @return org.apache.hadoop.hbase.client.Result
+     * @throws IOException 主副本和从副本都失败时抛出主副本的异常
+     */
+    Result get(String tableName, Get get, GetCall call) throws IOException {
+        int replicas = replicas(tableName);
+        if (replicas <= 1) {
+            return call.get(get);
+        }
+        LatencyWindow window = windows.computeIfAbsent(tableName, k -> new LatencyWindow(config.getWindow()));
+        Get primary = new Get(get).setConsistency(Consistency.STRONG);
+        Get replica = new Get(get).setConsistency(Consistency.TIMELINE)
+                .setReplicaId(1 + ThreadLocalRandom.current().nextInt(replicas - 1));
+
+        CompletionService<Result> completion = new ExecutorCompletionService<>(getExecutor());
+        completion.submit(() -> {
+            long start = System.nanoTime();
+            Result result = call.get(primary);
+            window.record(System.nanoTime() - start);
+            return result;
+        });
+        try {
+            Future<Result> first = completion.poll(window.deadlineMillis(), TimeUnit.MILLISECONDS);
+            if (first != null) {
+                try {
+                    return first.get();
+                } catch (ExecutionException e) {
+                    // 主副本在等待时间内失败，同样读从副本
+                    completion.submit(() -> call.get(replica));
+                    return await(completion, tableName, e);
+                }
+            }
+            completion.submit(() -> call.get(replica));
+            return await(completion, tableName, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("对冲读被中断,tableName:" + tableName);
+        }
+    }
+
+    /**
+     * 等待已提交的请求，取先成功返回的结果
+     * @param completion 已提交的请求
+     * @param tableName 表名
+     * @param primaryFailure 主副本已经失败时的异常，此时只剩从副本的请求
+     * @return org.apache.hadoop.hbase.client.Result
+     */
+    private Result await(CompletionService<Result> completion, String tableName, ExecutionException primaryFailure)
+            throws IOException, InterruptedException {
+        ExecutionException failure = primaryFailure;
+        for (int pending = primaryFailure == null ? 2 : 1; pending > 0; pending--) {
+            Future<Result> done = completion.take();
+            try {
+                Result result = done.get();
+                metrics.recordHedge(tableName, result.isStale() ? "replica" : "primary");
+                return result;
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        metrics.recordHedge(tableName, "none");
+        Throwable cause = failure.getCause();
+        throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    }
+
+    private ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    int threads = Math.max(2, config.getThreads());
+                    AtomicInteger index = new AtomicInteger();
+                    // 不排队，线程用完时在调用线程中执行，退化为不对冲的同步读
+                    executor = new ThreadPoolExecutor(0, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                        Thread thread = new Thread(r, "hbase-hedged-read-" + index.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 关闭线程池，未完成的读取继续执行
+     */
+    void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 一张表最近的主副本耗时，每 RECOMPUTE_INTERVAL 个样本重新计算一次对冲等待时间
+     */
+    private final class LatencyWindow {
+
+        private final long[] samples;
+        private int next;
+        private int size;
+        private volatile long deadlineMillis = config.getMaxHedgeDelay();
+
+        private LatencyWindow(int window) {
+            this.samples = new long[Math.max(RECOMPUTE_INTERVAL, window)];
+        }
+
+        private long deadlineMillis() {
+            return deadlineMillis;
+        }
+
+        private void record(long nanos) {
+            long[] copy = null;
+            synchronized (this) {
+                samples[next] = nanos;
+                next = (next + 1) % samples.length;
+                if (size < samples.length) {
+                    size++;
+                }
+                if (next % RECOMPUTE_INTERVAL == 0) {
+                    copy = Arrays.copyOf(samples, size);
+                }
+            }
+            if (copy != null) {
+                Arrays.sort(copy);
+                int index = (int) Math.ceil(config.getHedgePercentile() * copy.length) - 1;
+                long millis = TimeUnit.NANOSECONDS.toMillis(copy[Math.max(0, Math.min(copy.length - 1, index))]);
+                deadlineMillis = Math.max(config.getMinHedgeDelay(), Math.min(config.getMaxHedgeDelay(), millis));
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.util;
+
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @ClassName HbaseIncrementBuffer
+ * @Describe 计数器累加的客户端合并缓冲区：同一单元格的多次累加合并为一个 LongAdder，
+ * 刷写时按行合并为 Increment，大量小的累加变成少量批量 RPC。
+ * 按单元格哈希分段，累加和刷写都不加锁：刷写以 getAndSet 替换整段的 Map，
+ * 累加先登记到当前 Map 的进行中计数，再确认 Map 未被替换，已被替换则在新 Map 上重试；
+ * 刷写等旧 Map 上进行中的累加结束后再读取，替换后不会再有累加写进已取出的旧 Map
+ * @create 2026-10-18 19:10
+ * @Version 1.0
+ **/
+class HbaseIncrementBuffer {
+
+    private final AtomicReference<Segment>[] stripes;
+
+    /**
+     * 缓冲区中的单元格数
+     */
+    private final AtomicInteger pendingCells = new AtomicInteger();
+
+    /**
+     * @param stripes 分段数
+     */
+    @SuppressWarnings("unchecked")
+    HbaseIncrementBuffer(int stripes) {
+        this.stripes = new AtomicReference[Math.max(1, stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new AtomicReference<>(new Segment());
+        }
+    }
+
+    /**
+     * 累加一个单元格
+     * @param tableName 表名
+     * @param rowKey 物理行键
+     * @param familyName 列族名
+     * @param columnName 列名
+     * @param delta 增量
+     * @return int 缓冲区中的单元格数
+     */
+    int add(String tableName, String rowKey, String familyName, String columnName, long delta) {
+        CellKey key = new CellKey(tableName, rowKey, familyName, columnName);
+        AtomicReference<Segment> stripe = stripes[(key.hash & Integer.MAX_VALUE) % stripes.length];
+        while (true) {
+            Segment segment = stripe.get();
+            segment.writers.incrementAndGet();
+            try {
+                // 登记之后 Map 仍未被替换，刷写一定会等这次累加结束
+                if (stripe.get() == segment) {
+                    LongAdder adder = segment.cells.get(key);
+                    if (adder == null) {
+                        adder = segment.cells.computeIfAbsent(key, k -> {
+                            pendingCells.incrementAndGet();
+                            return new LongAdder();
+                        });
+                    }
+                    adder.add(delta);
+                    return pendingCells.get();
+                }
+            } finally {
+                segment.writers.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return int 缓冲区中的单元格数
+     */
+    int getPendingCells() {
+        return pendingCells.get();
+    }
+
+    /**
+     * 取出缓冲区中的所有累加，按表、行合并为 Increment，增量为 0 的单元格忽略
+     * @return java.util.Map<java.lang.String,java.util.List<org.apache.hadoop.hbase.client.Increment>> <表名, Increment>
+     */
+    Map<String, List<Increment>> drain() {
+        Map<String, Map<String, Increment>> tables = new HashMap<>();
+        for (AtomicReference<Segment> stripe : stripes) {
+            Segment segment = stripe.getAndSet(new Segment());
+            // 等待替换前已登记的累加写完，之后的累加都会在新 Map 上重试
+            while (segment.writers.get() != 0) {
+                Thread.yield();
+            }
+            ConcurrentHashMap<CellKey, LongAdder> cells = segment.cells;
+            pendingCells.addAndGet(-cells.size());
+
+            cells.forEach((key, adder) -> {
+                long delta = adder.sum();
+                if (delta == 0) {
+                    return;
+                }
+                Increment increment = tables.computeIfAbsent(key.tableName, k -> new LinkedHashMap<>())
+                        .computeIfAbsent(key.rowKey, k -> {
+                            Increment inc = new Increment(Bytes.toBytes(k));
+                            // 只需要写入，不需要返回累加后的值
+                            inc.setReturnResults(false);
+                            return inc;
+                        });
+                increment.addColumn(Bytes.toBytes(key.familyName), Bytes.toBytes(key.columnName), delta);
+            });
+        }
+
+        Map<String, List<Increment>> result = new HashMap<>();
+        tables.forEach((tableName, rows) -> result.put(tableName, new ArrayList<>(rows.values())));
+        return result;
+    }
+
+    private static final class Segment {
+
+        private final ConcurrentHashMap<CellKey, LongAdder> cells = new ConcurrentHashMap<>();
+
+        /**
+         * 正在写入该 Map 的累加数
+         */
+        private final AtomicInteger writers = new AtomicInteger();
+    }
+
+    private static final class CellKey {
+
+        private final String tableName;
+        private final String rowKey;
+        private final String familyName;
+        private final String columnName;
+        private final int hash;
+
+        private CellKey(String tableName, String rowKey, String familyName, String columnName) {
+            this.tableName = tableName;
+            this.rowKey = rowKey;
+            this.familyName = familyName;
+            this.columnName = columnName;
+            this.hash = Objects.hash(tableName, rowKey, familyName, columnName);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CellKey)) {
+                return false;
+            }
+            CellKey other = (CellKey) o;
+            return hash == other.hash && rowKey.equals(other.rowKey) && columnName.equals(other.columnName)
+                    && familyName.equals(other.familyName) && tableName.equals(other.tableName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.util;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * @ClassName HbaseIndex
+ * @Describe 单列二级索引定义：索引表行键为 列值 + \x00 + 数据表行键，按列值前缀 scan 即可找到所有数据行。
+ * 索引与数据分两次写入，不是原子的：先写新索引再写数据，最后删除旧索引，
+ * 中途失败只会留下多余的索引项，查询时回表校验列值过滤。
+ * 索引项的时间戳与数据列相同，删除旧索引项时只删除旧数据列时间戳的版本，
+ * 并发写入重新写回旧值时，新写入的索引项时间戳更大，不会被删除
+ * @create 2026-10-18 19:30
+ * @Version 1.0
+ **/
+public class HbaseIndex {
+
+    /**
+     * 索引表的列族
+     */
+    public static final String INDEX_FAMILY = "i";
+
+    private static final byte[] FAMILY = Bytes.toBytes(INDEX_FAMILY);
+    private static final byte SEPARATOR = 0;
+
+    private final String tableName;
+    private final String familyName;
+    private final String columnName;
+    private final String indexTableName;
+
+    /**
+     * @param tableName 数据表名
+     * @param familyName 列族名
+     * @param columnName 列名
+     */
+    public HbaseIndex(String tableName, String familyName, String columnName) {
+        this.tableName = tableName;
+        this.familyName = familyName;
+        this.columnName = columnName;
+        this.indexTableName = tableName + "_idx_" + columnName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getFamilyName() {
+        return familyName;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    /**
+     * @return java.lang.String 索引表名：数据表名_idx_列名
+     */
+    public String getIndexTableName() {
+        return indexTableName;
+    }
+
+    /**
+     * 列值对应的索引行键前缀：列值 + \x00
+     * @param value 列值
+     * @return byte[]
+     */
+    byte[] valuePrefix(String value) {
+        byte[] bytes = Bytes.toBytes(value);
+        byte[] prefix = new byte[bytes.length + 1];
+        System.arraycopy(bytes, 0, prefix, 0, bytes.length);
+        prefix[bytes.length] = SEPARATOR;
+        return prefix;
+    }
+
+    /**
+     * 从索引行键中取出数据表行键
+     * @param indexRow 索引行键
+     * @param prefixLength valuePrefix 的长度
+     * @return java.lang.String
+     */
+    String rowKey(byte[] indexRow, int prefixLength) {
+        return Bytes.toString(indexRow, prefixLength, indexRow.length - prefixLength);
+    }
+
+    /**
+     * 写入一个索引项
+     * @param value 列值
+     * @param rowKey 数据表行键（逻辑行键）
+     * @param timestamp 数据列的时间戳
+     * @return org.apache.hadoop.hbase.client.Put
+     */
+    Put indexPut(String value, String rowKey, long timestamp) {
+        return new Put(Bytes.add(valuePrefix(value), Bytes.toBytes(rowKey)))
+                .addColumn(FAMILY, HConstants.EMPTY_BYTE_ARRAY, timestamp, HConstants.EMPTY_BYTE_ARRAY);
+    }
+
+    /**
+     * 删除一个索引项的指定版本，之后以更大时间戳重新写入的索引项不受影响
+     * @param value 列值
+     * @param rowKey 数据表行键（逻辑行键）
+     * @param timestamp 旧数据列的时间戳
+     * @return org.apache.hadoop.hbase.client.Delete
+     */
+    Delete indexDelete(String value, String rowKey, long timestamp) {
+        return new Delete(Bytes.add(valuePrefix(value), Bytes.toBytes(rowKey)))
+                .addColumn(FAMILY, HConstants.EMPTY_BYTE_ARRAY, timestamp);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.util;
+
+import com.example.config.HbaseProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Result;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName HbaseMetrics
+ * @Describe HbaseUtil 各操作的 Micrometer 指标：按操作、表统计耗时（成功 / 失败），
+ * 以及读写的行数、Cell 数、字节数、批量大小、失败次数、写入使用的持久化级别和对冲读的结果
+ * @create 2026-10-18 18:10
+ * @Version 1.0
+ **/
+public class HbaseMetrics {
+
+    public static final String OPERATION = "hbase.client.operation";
+    public static final String ROWS = "hbase.client.rows";
+    public static final String CELLS = "hbase.client.cells";
+    public static final String BYTES = "hbase.client.bytes";
+    public static final String BATCH_SIZE = "hbase.client.batch.size";
+    public static final String ERRORS = "hbase.client.errors";
+    public static final String WRITES = "hbase.client.writes";
+    public static final String HEDGED_READS = "hbase.client.hedged.reads";
+
+    private final MeterRegistry registry;
+    private final HbaseProperties.Metrics config;
+
+    /**
+     * 按 名称 + tag 缓存 Meter，避免每次调用都构造 Meter.Id
+     */
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry 指标注册表，为 null 时不发布指标
+     * @param config 指标配置
+     */
+    public HbaseMetrics(MeterRegistry registry, HbaseProperties.Metrics config) {
+        this.registry = registry == null ? new CompositeMeterRegistry() : registry;
+        this.config = config;
+    }
+
+    /**
+     * @return io.micrometer.core.instrument.MeterRegistry
+     */
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 开始计时一次操作
+     * @param operation 操作名，如 get、put、scan
+     * @param tableName 表名
+     * @return com.example.util.HbaseMetrics.Call
+     */
+    public Call start(String operation, String tableName) {
+        return new Call(operation, tableName, System.nanoTime());
+    }
+
+    /**
+     * 记录批量操作的大小
+     * @param operation 操作名
+     * @param tableName 表名
+     * @param size 本批数量
+     */
+    public void recordBatchSize(String operation, String tableName, int size) {
+        summaries.computeIfAbsent(operation + '|' + tableName, k -> DistributionSummary.builder(BATCH_SIZE)
+                .tags("operation", operation, "table", tableName)
+                .register(registry))
+                .record(size);
+    }
+
+    /**
+     * 记录一次失败，如 BufferedMutator 后台提交失败的行
+     * @param operation 操作名
+     * @param tableName 表名
+     * @param cause 失败原因
+     */
+    public void recordError(String operation, String tableName, Throwable cause) {
+        String exception = cause == null ? "None" : cause.getClass().getSimpleName();
+        counters.computeIfAbsent(ERRORS + '|' + operation + '|' + tableName + '|' + exception, k -> Counter.builder(ERRORS)
+                .tags("operation", operation, "table", tableName, "exception", exception)
+                .register(registry))
+                .increment();
+    }
+
+    /**
+     * 记录写入的行数及使用的持久化级别
+     * @param operation 操作名
+     * @param tableName 表名
+     * @param durability 持久化级别
+     * @param rows 行数
+     */
+    public void recordWrite(String operation, String tableName, Durability durability, long rows) {
+        if (rows <= 0) {
+            return;
+        }
+        String mode = durability.name();
+        counters.computeIfAbsent(WRITES + '|' + operation + '|' + tableName + '|' + mode, k -> Counter.builder(WRITES)
+                .tags("operation", operation, "table", tableName, "durability", mode)
+                .register(registry))
+                .increment(rows);
+    }
+
+    /**
+     * 记录一次发起了对冲的读取
+     * @param tableName 表名
+     * @param winner 先返回的一方：primary、replica，都失败时为 none
+     */
+    public void recordHedge(String tableName, String winner) {
+        counters.computeIfAbsent(HEDGED_READS + '|' + tableName + '|' + winner, k -> Counter.builder(HEDGED_READS)
+                .tags("table", tableName, "winner", winner)
+                .register(registry))
+                .increment();
+    }
+
+    private void increment(String name, String operation, String tableName, long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        counters.computeIfAbsent(name + '|' + operation + '|' + tableName, k -> Counter.builder(name)
+                .tags("operation", operation, "table", tableName)
+                .register(registry))
+                .increment(amount);
+    }
+
+    private Timer timer(String operation, String tableName, String outcome) {
+        return timers.computeIfAbsent(operation + '|' + tableName + '|' + outcome, k -> {
+            Timer.Builder builder = Timer.builder(OPERATION)
+                    .tags("operation", operation, "table", tableName, "outcome", outcome)
+                    .publishPercentileHistogram(config.isPercentileHistogram());
+            if (config.getPercentiles() != null && config.getPercentiles().length > 0) {
+                builder.publishPercentiles(config.getPercentiles());
+            }
+            return builder.register(registry);
+        });
+    }
+
+    /**
+     * 一次操作的计时及行数统计，只在调用线程中使用
+     */
+    public class Call {
+
+        private final String operation;
+        private final String tableName;
+        private final long startNanos;
+        private long rows;
+        private long cells;
+        private long bytes;
+        private Throwable failure;
+
+        private Call(String operation, String tableName, long startNanos) {
+            this.operation = operation;
+            this.tableName = tableName;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 统计一行结果
+         * @param r 一行结果
+         * @return com.example.util.HbaseMetrics.Call
+         */
+        public Call result(Result r) {
+            if (r != null && !r.isEmpty()) {
+                rows++;
+                cells += r.size();
+                bytes += Result.getTotalSizeOfCells(r);
+            }
+            return this;
+        }
+
+        /**
+         * 统计写入或处理的行数
+         * @param count 行数
+         * @return com.example.util.HbaseMetrics.Call
+         */
+        public Call rows(long count) {
+            rows += count;
+            return this;
+        }
+
+        /**
+         * 标记操作失败
+         * @param cause 失败原因
+         * @return com.example.util.HbaseMetrics.Call
+         */
+        public Call fail(Throwable cause) {
+            this.failure = cause;
+            return this;
+        }
+
+        /**
+         * 结束计时并记录指标
+         */
+        public void stop() {
+            timer(operation, tableName, failure == null ? "success" : "error")
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            if (failure != null) {
+                recordError(operation, tableName, failure);
+            }
+            increment(ROWS, operation, tableName, rows);
+            increment(CELLS, operation, tableName, cells);
+            increment(BYTES, operation, tableName, bytes);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.util;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.zip.CRC32;
+
+/**
+ * @ClassName HbasePageToken
+ * @Describe 分页续查令牌的编解码：查询条件指纹（4 字节）+ 上一页最后一个行键，URL 安全的 Base64；
+ * 令牌中不包含过滤器本身，续查时由调用方重新提供查询条件，指纹不一致的令牌会被拒绝
+ * @create 2026-10-18 16:50
+ * @Version 1.0
+ **/
+final class HbasePageToken {
+
+    private static final int FINGERPRINT_LENGTH = 4;
+
+    private HbasePageToken() {
+    }
+
+    /**
+     * 生成令牌
+     * @param scan 查询条件
+     * @param lastRow 本页最后一个行键
+     * @return java.lang.String
+     * @throws IOException 过滤器序列化失败
+     */
+    static String encode(Scan scan, byte[] lastRow) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(FINGERPRINT_LENGTH + lastRow.length);
+        buffer.putInt(fingerprint(scan));
+        buffer.put(lastRow);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * 解析令牌
+     * @param scan 查询条件，必须与生成令牌时一致
+     * @param token 令牌
+     * @return byte[] 上一页最后一个行键
+     * @throws IOException 过滤器序列化失败
+     * @throws IllegalArgumentException 令牌格式错误或与查询条件不匹配
+     */
+    static byte[] decode(Scan scan, String token) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("分页令牌格式错误:" + token, e);
+        }
+        if (bytes.length <= FINGERPRINT_LENGTH) {
+            throw new IllegalArgumentException("分页令牌格式错误:" + token);
+        }
+        if (ByteBuffer.wrap(bytes).getInt() != fingerprint(scan)) {
+            throw new IllegalArgumentException("分页令牌与查询条件不匹配:" + token);
+        }
+        return Arrays.copyOfRange(bytes, FINGERPRINT_LENGTH, bytes.length);
+    }
+
+    /**
+     * 决定结果集的查询条件：起止行键、列、过滤器
+     */
+    private static int fingerprint(Scan scan) throws IOException {
+        CRC32 crc = new CRC32();
+        update(crc, scan.getStartRow());
+        crc.update(scan.includeStartRow() ? 1 : 0);
+        update(crc, scan.getStopRow());
+        crc.update(scan.includeStopRow() ? 1 : 0);
+        for (Map.Entry<byte[], NavigableSet<byte[]>> family : scan.getFamilyMap().entrySet()) {
+            update(crc, family.getKey());
+            if (family.getValue() != null) {
+                for (byte[] qualifier : family.getValue()) {
+                    update(crc, qualifier);
+                }
+            }
+        }
+        if (scan.getFilter() != null) {
+            update(crc, Bytes.toBytes(scan.getFilter().getClass().getName()));
+            update(crc, scan.getFilter().toByteArray());
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 写入长度再写入内容，避免不同字段拼接后相同
+     */
+    private static void update(CRC32 crc, byte[] bytes) {
+        crc.update(Bytes.toBytes(bytes.length));
+        crc.update(bytes);
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.*;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @ClassName HbaseQuery
+ * @Describe 组合查询条件，编译为一个 Scan：行键范围、前缀转换为起止行键，只扫描相关 region；
+ * 列前缀、列值条件组合为一个 FilterList 下推到 RegionServer 执行，只返回命中的行和列
+ * @create 2026-10-18 17:50
+ * @Version 1.0
+ **/
+public class HbaseQuery {
+
+    private byte[] startRow;
+    private byte[] stopRow;
+    private byte[] prefix;
+
+    /**
+     * <列族, 列名>，列名为空表示整个列族
+     */
+    private final Map<String, Set<String>> columns = new LinkedHashMap<>();
+    private final List<String> columnPrefixes = new ArrayList<>();
+    private final List<Filter> valueFilters = new ArrayList<>();
+
+    /**
+     * 列值条件用到的列，有列投影时需要一并读取，否则 RegionServer 上的过滤器看不到列值
+     */
+    private final Map<String, Set<String>> predicateColumns = new LinkedHashMap<>();
+
+    private Long minTimestamp;
+    private Long maxTimestamp;
+    private Integer limit;
+
+    /**
+     * 行键范围
+     * @param startRowKey 起始行键（包含），为空时不限制
+     * @param stopRowKey 结束行键（不包含），为空时不限制
+     * @return com.example.util.HbaseQuery
+     */
+    public HbaseQuery range(String startRowKey, String stopRowKey) {
+        this.startRow = StringUtils.isBlank(startRowKey) ? null : Bytes.toBytes(startRowKey);
+        this.stopRow = StringUtils.isBlank(stopRowKey) ? null : Bytes.toBytes(stopRowKey);
+        return this;
+    }
+
+    /**
+     * 行键前缀，转换为起止行键，与 range 同时设置时取交集
+     * @param prefix 行键前缀
+     * @return com.example.util.HbaseQuery
+     */
+    public HbaseQuery prefix(String prefix) {
+        this.prefix = StringUtils.isBlank(prefix) ? null : Bytes.toBytes(prefix);
+        return this;
+    }
+
+    /**
+     * 只返回指定的列，可多次调用
+     * @param family 列族
+     * @param qualifiers 列名，为空时返回整个列族
+     * @return com.example.util.HbaseQuery
+     */
+    public HbaseQuery columns(String family, String... qualifiers) {
+        addColumns(columns, family, qualifiers);
+        return this;
+    }
+
+    /**
+     * 只返回列名以任一前缀开始的列，与 where 同时使用时条件列也必须匹配前缀，否则过滤器看不到条件列
+     * @param prefixes 列名前缀
+     * @return com.example.util.HbaseQuery
+     */
+    public HbaseQuery columnPrefix(String... prefixes) {
+        Collections.addAll(columnPrefixes, prefixes);
+        return this;
+    }
+
+    /**
+     * 列值条件，只比较最新版本，不包含该列的行被过滤，多个条件之间为且
+     * @param family 列族
+     * @param qualifier 列名
+     * @param op 比较方式
+     * @param value 列值，按字节序比较
+     * @return com.example.util.HbaseQuery
+     */
+    public HbaseQuery where(String family, String qualifier, CompareOperator op, String value) {
+        return where(family, qualifier, op, new BinaryComparator(Bytes.toBytes(value)));
+    }
+
+    /**
+     * 列值包含指定字符串
+     * @param family 列族
+     * @param qualifier 列名
+     * @param substring 子串
+     * @return com.example.util.HbaseQuery
+     */
+    public HbaseQuery whereContains(String family, String qualifier, String substring) {
+        return where(family, qualifier, CompareOperator.EQUAL, new SubstringComparator(substring));
+    }
+
+    /**
+     * 列值条件，使用自定义比较器
+     * @param family 列族
+     * @param qualifier 列名
+     * @param op 比较方式
+     * @param comparator 比较器
+     * @return com.example.util.HbaseQuery
+     */
+    public HbaseQuery where(String family, String qualifier, CompareOperator op, ByteArrayComparable comparator) {
+        SingleColumnValueFilter filter = new SingleColumnValueFilter(Bytes.toBytes(family), Bytes.toBytes(qualifier),
+                op, comparator);
+        filter.setFilterIfMissing(true);
+        filter.setLatestVersionOnly(true);
+        valueFilters.add(filter);
+        addColumns(predicateColumns, family, qualifier);
+        return this;
+    }
+
+    /**
+     * 时间戳范围
+     * @param minTimestamp 最小时间戳（包含）
+     * @param maxTimestamp 最大时间戳（不包含）
+     * @return com.example.util.HbaseQuery
+     */
+    public HbaseQuery timeRange(long minTimestamp, long maxTimestamp) {
+        if (minTimestamp > maxTimestamp) {
+            throw new IllegalArgumentException(MessageFormat.format("时间范围错误,min:{0},max:{1}", minTimestamp, maxTimestamp));
+        }
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        return this;
+    }
+
+    /**
+     * 最多返回的行数
+     * @param limit 行数
+     * @return com.example.util.HbaseQuery
+     */
+    public HbaseQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * @return java.lang.Integer 最多返回的行数，未设置时为 null
+     */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * 编译为 Scan，每次调用返回新的 Scan
+     * @return org.apache.hadoop.hbase.client.Scan
+     */
+    public Scan toScan() {
+        Scan scan = new Scan();
+
+        byte[] start = startRow;
+        byte[] stop = stopRow;
+        if (prefix != null) {
+            // 前缀与 range 取交集
+            byte[] prefixStop = ParallelScanner.prefixStopRow(prefix);
+            if (start == null || Bytes.compareTo(prefix, start) > 0) {
+                start = prefix;
+            }
+            if (prefixStop.length != 0 && (stop == null || Bytes.compareTo(prefixStop, stop) < 0)) {
+                stop = prefixStop;
+            }
+        }
+        if (start != null) {
+            scan.withStartRow(start);
+        }
+        if (stop != null) {
+            scan.withStopRow(stop);
+        }
+
+        if (!columns.isEmpty()) {
+            Map<String, Set<String>> projection = new LinkedHashMap<>(columns);
+            predicateColumns.forEach((family, qualifiers) -> {
+                Set<String> projected = projection.get(family);
+                if (projected == null) {
+                    projection.put(family, qualifiers);
+                } else if (!projected.isEmpty()) {
+                    Set<String> merged = new LinkedHashSet<>(projected);
+                    merged.addAll(qualifiers);
+                    projection.put(family, merged);
+                }
+            });
+            projection.forEach((family, qualifiers) -> {
+                if (qualifiers.isEmpty()) {
+                    scan.addFamily(Bytes.toBytes(family));
+                } else {
+                    qualifiers.forEach(qualifier -> scan.addColumn(Bytes.toBytes(family), Bytes.toBytes(qualifier)));
+                }
+            });
+        }
+
+        List<Filter> filters = new ArrayList<>(valueFilters);
+        if (!columnPrefixes.isEmpty()) {
+            byte[][] prefixes = new byte[columnPrefixes.size()][];
+            for (int i = 0; i < prefixes.length; i++) {
+                prefixes[i] = Bytes.toBytes(columnPrefixes.get(i));
+            }
+            filters.add(prefixes.length == 1 ? new ColumnPrefixFilter(prefixes[0]) : new MultipleColumnPrefixFilter(prefixes));
+        }
+        if (filters.size() == 1) {
+            scan.setFilter(filters.get(0));
+        } else if (filters.size() > 1) {
+            scan.setFilter(new FilterList(FilterList.Operator.MUST_PASS_ALL, filters));
+        }
+
+        if (minTimestamp != null) {
+            try {
+                scan.setTimeRange(minTimestamp, maxTimestamp);
+            } catch (IOException e) {
+                // timeRange 中已校验
+                throw new IllegalArgumentException(e);
+            }
+        }
+        if (limit != null) {
+            scan.setLimit(limit);
+        }
+        return scan;
+    }
+
+    private static void addColumns(Map<String, Set<String>> target, String family, String... qualifiers) {
+        if (qualifiers == null || qualifiers.length == 0) {
+            // 空集合表示整个列族
+            target.put(family, new LinkedHashSet<>());
+            return;
+        }
+        Set<String> set = target.get(family);
+        if (set == null) {
+            set = new LinkedHashSet<>();
+            target.put(family, set);
+        } else if (set.isEmpty()) {
+            // 已包含整个列族
+            return;
+        }
+        Collections.addAll(set, qualifiers);
+    }
+}
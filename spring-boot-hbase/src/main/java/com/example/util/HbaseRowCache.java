@@ -0,0 +1,205 @@
+package com.example.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @ClassName HbaseRowCache
+ * @Describe 单行读缓存，按字节数限制容量（W-TinyLFU 淘汰），每张表单独配置过期时间，
+ * 只缓存配置了的表；本实例写入、删除行时主动失效。
+ * 每次失效递增行键所在分段的版本号，读穿透时先取版本号再读 HBase，写回缓存时版本号已变化则丢弃，
+ * 读取期间发生的写入不会被旧结果覆盖
+ * @create 2026-10-18 15:20
+ * @Version 1.0
+ **/
+public class HbaseRowCache {
+
+    /**
+     * 每个缓存项除 Cell 数据外的估算开销（字节）
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    /**
+     * 每个 Cell 除行键、列族、列名、值以外的估算开销（字节）
+     */
+    private static final int CELL_OVERHEAD = 64;
+
+    /**
+     * 失效版本号的分段数，不同行键可能共用一个分段，只会多丢弃一些写回
+     */
+    private static final int VERSION_STRIPES = 1024;
+
+    private final Map<String, Long> tableTtls;
+    private final Cache<RowKey, Result> cache;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    /**
+     * @param maxBytes 缓存最大字节数
+     * @param tableTtls <表名, 过期时间（毫秒）>，只有其中的表会被缓存
+     */
+    public HbaseRowCache(long maxBytes, Map<String, Long> tableTtls) {
+        this.tableTtls = tableTtls;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((RowKey key, Result value) -> weigh(key, value))
+                .expireAfter(new Expiry<RowKey, Result>() {
+                    @Override
+                    public long expireAfterCreate(RowKey key, Result value, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(tableTtls.get(key.getTableName()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(RowKey key, Result value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(RowKey key, Result value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 该表是否开启了缓存
+     * @param tableName 表名
+     * @return boolean
+     */
+    public boolean isEnabled(String tableName) {
+        return tableTtls.containsKey(tableName);
+    }
+
+    /**
+     * 读取缓存
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @return org.apache.hadoop.hbase.client.Result 未命中返回 null，行不存在时返回空 Result
+     */
+    public Result get(String tableName, String rowKey) {
+        return cache.getIfPresent(new RowKey(tableName, rowKey));
+    }
+
+    /**
+     * 读穿透前获取行的失效版本号
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @return long
+     */
+    public long version(String tableName, String rowKey) {
+        return versions.get(stripe(new RowKey(tableName, rowKey)));
+    }
+
+    /**
+     * 写入读穿透的结果，取得版本号之后该行被失效过时不写入
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param result 整行数据
+     * @param version 读取 HBase 之前 {@link #version} 返回的版本号
+     */
+    public void put(String tableName, String rowKey, Result result, long version) {
+        if (isEnabled(tableName)) {
+            RowKey key = new RowKey(tableName, rowKey);
+            // 与 invalidate 的删除在同一个键上互斥：删除之前写入的会被删除，删除之后写入的能看到新版本号
+            cache.asMap().compute(key, (k, old) -> versions.get(stripe(k)) == version ? result : old);
+        }
+    }
+
+    /**
+     * 使一行缓存失效
+     * @param tableName 表名
+     * @param rowKey 行键
+     */
+    public void invalidate(String tableName, String rowKey) {
+        if (isEnabled(tableName)) {
+            RowKey key = new RowKey(tableName, rowKey);
+            versions.incrementAndGet(stripe(key));
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * 使一张表的缓存全部失效，用于删表、删列族
+     * @param tableName 表名
+     */
+    public void invalidateTable(String tableName) {
+        if (isEnabled(tableName)) {
+            invalidateVersions();
+            cache.asMap().keySet().removeIf(key -> key.getTableName().equals(tableName));
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        invalidateVersions();
+        cache.invalidateAll();
+    }
+
+    private void invalidateVersions() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+    }
+
+    private static int stripe(RowKey key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    /**
+     * 命中、未命中、淘汰次数等统计
+     * @return com.github.benmanes.caffeine.cache.stats.CacheStats
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 将命中率、淘汰数、缓存行数等统计发布到指标注册表
+     * @param registry 指标注册表
+     */
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "hbase.row-cache");
+    }
+
+    /**
+     * 当前缓存的行数
+     * @return long
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static int weigh(RowKey key, Result value) {
+        long size = ENTRY_OVERHEAD + 2L * key.getRowKey().length();
+        Cell[] cells = value.rawCells();
+        if (cells != null) {
+            for (Cell cell : cells) {
+                size += CELL_OVERHEAD + cell.getRowLength() + cell.getFamilyLength()
+                        + cell.getQualifierLength() + cell.getValueLength();
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    @Data
+    private static class RowKey {
+
+        private final String tableName;
+        private final String rowKey;
+    }
+}
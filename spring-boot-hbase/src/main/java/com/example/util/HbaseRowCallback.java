@@ -0,0 +1,20 @@
+package com.example.util;
+
+import com.example.model.HbaseRow;
+
+/**
+ * @ClassName HbaseRowCallback
+ * @Describe 流式遍历的行回调
+ * @create 2026-10-18 14:25
+ * @Version 1.0
+ **/
+@FunctionalInterface
+public interface HbaseRowCallback {
+
+    /**
+     * 处理一行数据
+     * @param row 行数据
+     * @return boolean 返回 false 时停止遍历并关闭 scanner
+     */
+    boolean onRow(HbaseRow row);
+}
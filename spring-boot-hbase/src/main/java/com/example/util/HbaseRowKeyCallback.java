@@ -0,0 +1,18 @@
+package com.example.util;
+
+/**
+ * @ClassName HbaseRowKeyCallback
+ * @Describe 只遍历行键时的回调
+ * @create 2026-10-18 17:10
+ * @Version 1.0
+ **/
+@FunctionalInterface
+public interface HbaseRowKeyCallback {
+
+    /**
+     * 处理一个行键
+     * @param rowKey 行键，加盐表为逻辑行键
+     * @return boolean 返回 false 时停止遍历
+     */
+    boolean onRowKey(String rowKey);
+}
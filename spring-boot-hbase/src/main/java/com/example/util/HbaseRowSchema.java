@@ -0,0 +1,111 @@
+package com.example.util;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @ClassName HbaseRowSchema
+ * @Describe 表的列类型定义，列族名、列名提前编码为 byte[]，解码时不再分配字符串
+ * @create 2026-10-18 15:40
+ * @Version 1.0
+ **/
+public class HbaseRowSchema {
+
+    /**
+     * <列名, 列定义>
+     */
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    /**
+     * 按列族、列名排序的列定义，与 Result 中 Cell 的顺序一致，解码时一次归并即可定位所有列
+     */
+    private Column[] sortedColumns = new Column[0];
+
+    /**
+     * 添加一列
+     * @param familyName 列族名
+     * @param columnName 列名
+     * @param type 列值的存储格式
+     * @return com.example.util.HbaseRowSchema
+     */
+    public HbaseRowSchema addColumn(String familyName, String columnName, HbaseColumnType type) {
+        Column existing = columns.get(columnName);
+        int index = existing == null ? columns.size() : existing.getIndex();
+        columns.put(columnName, new Column(Bytes.toBytes(familyName), Bytes.toBytes(columnName), type, index));
+        Column[] sorted = columns.values().toArray(new Column[0]);
+        Arrays.sort(sorted, (a, b) -> {
+            int c = Bytes.compareTo(a.getFamily(), b.getFamily());
+            return c != 0 ? c : Bytes.compareTo(a.getQualifier(), b.getQualifier());
+        });
+        sortedColumns = sorted;
+        return this;
+    }
+
+    /**
+     * 获取列定义
+     * @param columnName 列名
+     * @return com.example.util.HbaseRowSchema.Column 未定义时返回 null
+     */
+    public Column getColumn(String columnName) {
+        return columns.get(columnName);
+    }
+
+    /**
+     * 所有列定义
+     * @return java.util.Collection<com.example.util.HbaseRowSchema.Column>
+     */
+    public Collection<Column> getColumns() {
+        return Collections.unmodifiableCollection(columns.values());
+    }
+
+    /**
+     * 按列族、列名排序的列定义，不要修改返回的数组
+     * @return com.example.util.HbaseRowSchema.Column[]
+     */
+    Column[] getSortedColumns() {
+        return sortedColumns;
+    }
+
+    /**
+     * 列数
+     * @return int
+     */
+    int size() {
+        return columns.size();
+    }
+
+    /**
+     * 只查询 schema 中定义的列
+     * @param scan Scan
+     * @return org.apache.hadoop.hbase.client.Scan
+     */
+    public Scan project(Scan scan) {
+        for (Column column : columns.values()) {
+            scan.addColumn(column.getFamily(), column.getQualifier());
+        }
+        return scan;
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Column {
+
+        private final byte[] family;
+        private final byte[] qualifier;
+        private final HbaseColumnType type;
+
+        /**
+         * 列在 schema 中的序号，从 0 开始
+         */
+        private final int index;
+    }
+}
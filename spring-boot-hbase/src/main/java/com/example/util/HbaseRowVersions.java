@@ -0,0 +1,171 @@
+package com.example.util;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @ClassName HbaseRowVersions
+ * @Describe 一行中各列的多个版本：时间戳保存在 long[] 中，列值按需从 Cell 解码，
+ * 不为每个版本创建对象；同一列的版本按时间戳从新到旧排列
+ * @create 2026-10-18 19:50
+ * @Version 1.0
+ **/
+public class HbaseRowVersions {
+
+    private final String rowKey;
+    private final Cell[] cells;
+    private final long[] timestamps;
+
+    /**
+     * 每列第一个版本在 cells 中的下标，最后一个元素为 cells.length
+     */
+    private final int[] columnOffsets;
+    private final String[] columnNames;
+
+    /**
+     * @param rowKey 逻辑行键
+     * @param result 一行结果，Cell 按列族、列名、时间戳倒序排列
+     */
+    HbaseRowVersions(String rowKey, Result result) {
+        this.rowKey = rowKey;
+        this.cells = result.rawCells() == null ? new Cell[0] : result.rawCells();
+        this.timestamps = new long[cells.length];
+        int[] offsets = new int[cells.length + 1];
+        int columns = 0;
+        for (int i = 0; i < cells.length; i++) {
+            timestamps[i] = cells[i].getTimestamp();
+            if (i == 0 || !CellUtil.matchingColumn(cells[i - 1], cells[i])) {
+                offsets[columns++] = i;
+            }
+        }
+        offsets[columns] = cells.length;
+        this.columnOffsets = Arrays.copyOf(offsets, columns + 1);
+        this.columnNames = new String[columns];
+        for (int c = 0; c < columns; c++) {
+            Cell cell = cells[columnOffsets[c]];
+            columnNames[c] = Bytes.toString(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+        }
+    }
+
+    /**
+     * @return java.lang.String 行键
+     */
+    public String getRowKey() {
+        return rowKey;
+    }
+
+    /**
+     * @return int 列数
+     */
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     * @param column 列下标
+     * @return java.lang.String 列名
+     */
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    /**
+     * 列名对应的列下标，不同列族有同名列时返回第一个
+     * @param columnName 列名
+     * @return int 列不存在时返回 -1
+     */
+    public int indexOf(String columnName) {
+        for (int c = 0; c < columnNames.length; c++) {
+            if (columnNames[c].equals(columnName)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param column 列下标
+     * @return int 该列的版本数
+     */
+    public int getVersionCount(int column) {
+        return columnOffsets[column + 1] - columnOffsets[column];
+    }
+
+    /**
+     * @param column 列下标
+     * @param version 版本下标，0 为最新版本
+     * @return long 时间戳
+     */
+    public long getTimestamp(int column, int version) {
+        return timestamps[cellIndex(column, version)];
+    }
+
+    /**
+     * @param column 列下标
+     * @param version 版本下标，0 为最新版本
+     * @return java.lang.String 列值
+     */
+    public String getValue(int column, int version) {
+        Cell cell = cells[cellIndex(column, version)];
+        return Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+
+    /**
+     * 一列所有版本的时间戳
+     * @param columnName 列名
+     * @return long[] 列不存在时返回空数组
+     */
+    public long[] getTimestamps(String columnName) {
+        int column = indexOf(columnName);
+        return column < 0 ? new long[0] : Arrays.copyOfRange(timestamps, columnOffsets[column], columnOffsets[column + 1]);
+    }
+
+    /**
+     * 一列所有版本的值
+     * @param columnName 列名
+     * @return java.util.List<java.lang.String> 列不存在时返回空列表
+     */
+    public List<String> getValues(String columnName) {
+        int column = indexOf(columnName);
+        if (column < 0) {
+            return new ArrayList<>();
+        }
+        List<String> values = new ArrayList<>(getVersionCount(column));
+        for (int version = 0; version < getVersionCount(column); version++) {
+            values.add(getValue(column, version));
+        }
+        return values;
+    }
+
+    private int cellIndex(int column, int version) {
+        if (version < 0 || version >= getVersionCount(column)) {
+            throw new IndexOutOfBoundsException("version:" + version + ",versionCount:" + getVersionCount(column));
+        }
+        return columnOffsets[column] + version;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(rowKey).append('{');
+        for (int c = 0; c < columnNames.length; c++) {
+            if (c > 0) {
+                builder.append(", ");
+            }
+            builder.append(columnNames[c]).append('=').append('[');
+            for (int version = 0; version < getVersionCount(c); version++) {
+                if (version > 0) {
+                    builder.append(", ");
+                }
+                builder.append(getTimestamp(c, version)).append(':').append(getValue(c, version));
+            }
+            builder.append(']');
+        }
+        return builder.append('}').toString();
+    }
+}
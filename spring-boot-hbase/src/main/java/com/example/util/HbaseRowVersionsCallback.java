@@ -0,0 +1,18 @@
+package com.example.util;
+
+/**
+ * @ClassName HbaseRowVersionsCallback
+ * @Describe 多版本流式遍历回调
+ * @create 2026-10-18 19:50
+ * @Version 1.0
+ **/
+@FunctionalInterface
+public interface HbaseRowVersionsCallback {
+
+    /**
+     * 处理一行数据
+     * @param row 一行中各列的多个版本
+     * @return boolean 返回 false 时停止遍历并关闭 scanner
+     */
+    boolean onRow(HbaseRowVersions row);
+}
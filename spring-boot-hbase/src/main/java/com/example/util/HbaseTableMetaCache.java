@@ -0,0 +1,108 @@
+package com.example.util;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.TableNotFoundException;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.TableDescriptor;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @ClassName HbaseTableMetaCache
+ * @Describe 缓存表是否存在以及表结构，避免每次增删改都向 HMaster 发起 tableExists 请求；
+ * 本实例的建表、删表、修改列族操作会主动失效缓存，其他客户端的修改在 ttl 过期后可见；
+ * 表不存在的结果不缓存，其他客户端新建的表立即可见
+ * @create 2026-10-18 15:00
+ * @Version 1.0
+ **/
+public class HbaseTableMetaCache {
+
+    private final HbaseConnectionPool connectionPool;
+    private final long ttlMillis;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param connectionPool 连接池
+     * @param ttlMillis 缓存有效期（毫秒），<= 0 表示不过期
+     */
+    public HbaseTableMetaCache(HbaseConnectionPool connectionPool, long ttlMillis) {
+        this.connectionPool = connectionPool;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * 表是否存在
+     * @param tableName 表名
+     * @return boolean
+     * @throws IOException
+     */
+    public boolean tableExists(String tableName) throws IOException {
+        return load(tableName).descriptor != null;
+    }
+
+    /**
+     * 获取表结构
+     * @param tableName 表名
+     * @return org.apache.hadoop.hbase.client.TableDescriptor 表不存在时返回 null
+     * @throws IOException
+     */
+    public TableDescriptor getDescriptor(String tableName) throws IOException {
+        return load(tableName).descriptor;
+    }
+
+    /**
+     * 使指定表的缓存失效，下次访问时重新加载
+     * @param tableName 表名
+     */
+    public void invalidate(String tableName) {
+        entries.remove(tableName);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private Entry load(String tableName) throws IOException {
+        Entry entry = entries.get(tableName);
+        if (entry != null && !entry.isExpired()) {
+            return entry;
+        }
+
+        TableDescriptor descriptor;
+        try (Admin admin = connectionPool.get(tableName).getAdmin()) {
+            descriptor = admin.getDescriptor(TableName.valueOf(tableName));
+        } catch (TableNotFoundException e) {
+            descriptor = null;
+        }
+        entry = new Entry(descriptor, System.currentTimeMillis());
+        if (descriptor == null) {
+            entries.remove(tableName);
+        } else {
+            entries.put(tableName, entry);
+        }
+        return entry;
+    }
+
+    private class Entry {
+
+        /**
+         * 表结构，为 null 表示表不存在
+         */
+        private final TableDescriptor descriptor;
+        private final long loadTime;
+
+        private Entry(TableDescriptor descriptor, long loadTime) {
+            this.descriptor = descriptor;
+            this.loadTime = loadTime;
+        }
+
+        private boolean isExpired() {
+            return ttlMillis > 0 && System.currentTimeMillis() - loadTime > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.util;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * @ClassName HbaseTypedRow
+ * @Describe 按 schema 直接从 Cell 的底层数组解码一行数据，数值列不经过 String，
+ * 流式遍历时同一个实例会被复用，不要在回调之外持有
+ * @create 2026-10-18 15:45
+ * @Version 1.0
+ **/
+public class HbaseTypedRow {
+
+    /**
+     * 不经过 Double.parseDouble 也能精确换算的最大尾数（2^53）
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final HbaseRowSchema schema;
+
+    /**
+     * 物理行键中盐值前缀的长度，逻辑行键从这里开始
+     */
+    private final int rowKeyOffset;
+    private Result result;
+
+    /**
+     * 按列序号索引的当前行最新 Cell，首次访问列时遍历一次 rawCells() 建立，切换行时复用
+     */
+    private Cell[] cells;
+    private boolean indexed;
+
+    public HbaseTypedRow(HbaseRowSchema schema) {
+        this(schema, 0);
+    }
+
+    public HbaseTypedRow(HbaseRowSchema schema, int rowKeyOffset) {
+        this.schema = schema;
+        this.rowKeyOffset = rowKeyOffset;
+    }
+
+    public HbaseTypedRow(HbaseRowSchema schema, int rowKeyOffset, Result result) {
+        this(schema, rowKeyOffset);
+        this.result = result;
+    }
+
+    /**
+     * 切换到下一行
+     * @param result 一行结果
+     * @return com.example.util.HbaseTypedRow
+     */
+    HbaseTypedRow reset(Result result) {
+        this.result = result;
+        this.indexed = false;
+        return this;
+    }
+
+    /**
+     * 原始结果
+     * @return org.apache.hadoop.hbase.client.Result
+     */
+    public Result getResult() {
+        return result;
+    }
+
+    /**
+     * 行键
+     * @return java.lang.String
+     */
+    public String getRowKey() {
+        byte[] row = result.getRow();
+        return Bytes.toString(row, rowKeyOffset, row.length - rowKeyOffset);
+    }
+
+    /**
+     * 行键的只读视图，不复制数据
+     * @return java.nio.ByteBuffer
+     */
+    public ByteBuffer getRowKeyBuffer() {
+        byte[] row = result.getRow();
+        return ByteBuffer.wrap(row, rowKeyOffset, row.length - rowKeyOffset).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * 该列是否有值
+     * @param columnName 列名
+     * @return boolean
+     */
+    public boolean has(String columnName) {
+        return cell(columnName) != null;
+    }
+
+    /**
+     * 列值的只读视图，不复制数据
+     * @param columnName 列名
+     * @return java.nio.ByteBuffer 列不存在时返回 null
+     */
+    public ByteBuffer getValueBuffer(String columnName) {
+        Cell cell = cell(columnName);
+        if (cell == null) {
+            return null;
+        }
+        return ByteBuffer.wrap(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * 字符串值
+     * @param columnName 列名
+     * @return java.lang.String 列不存在时返回 null
+     */
+    public String getString(String columnName) {
+        Cell cell = cell(columnName);
+        if (cell == null) {
+            return null;
+        }
+        return Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+
+    /**
+     * 整数值
+     * @param columnName 列名
+     * @return long 列不存在时返回 0
+     */
+    public long getLong(String columnName) {
+        HbaseRowSchema.Column column = column(columnName);
+        Cell cell = cell(column);
+        if (cell == null) {
+            return 0L;
+        }
+        switch (column.getType()) {
+            case LONG:
+                return Bytes.toLong(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            case INT:
+                return Bytes.toInt(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            case TEXT_LONG:
+                return parseLong(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            default:
+                throw new IllegalArgumentException("列不是整数类型,column:" + columnName + ",type:" + column.getType());
+        }
+    }
+
+    /**
+     * 整数值
+     * @param columnName 列名
+     * @return int 列不存在时返回 0
+     */
+    public int getInt(String columnName) {
+        return Math.toIntExact(getLong(columnName));
+    }
+
+    /**
+     * 浮点数值，整数列会转换为浮点数
+     * @param columnName 列名
+     * @return double 列不存在时返回 0
+     */
+    public double getDouble(String columnName) {
+        HbaseRowSchema.Column column = column(columnName);
+        Cell cell = cell(column);
+        if (cell == null) {
+            return 0D;
+        }
+        switch (column.getType()) {
+            case DOUBLE:
+                return Bytes.toDouble(cell.getValueArray(), cell.getValueOffset());
+            case TEXT_DOUBLE:
+                return parseDouble(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            case LONG:
+            case INT:
+            case TEXT_LONG:
+                return getLong(columnName);
+            default:
+                throw new IllegalArgumentException("列不是数值类型,column:" + columnName + ",type:" + column.getType());
+        }
+    }
+
+    private HbaseRowSchema.Column column(String columnName) {
+        HbaseRowSchema.Column column = schema.getColumn(columnName);
+        if (column == null) {
+            throw new IllegalArgumentException("schema 中未定义该列,column:" + columnName);
+        }
+        return column;
+    }
+
+    private Cell cell(String columnName) {
+        return cell(column(columnName));
+    }
+
+    private Cell cell(HbaseRowSchema.Column column) {
+        if (!indexed) {
+            index();
+        }
+        return column.getIndex() < cells.length ? cells[column.getIndex()] : null;
+    }
+
+    /**
+     * rawCells() 与 schema 的列都按列族、列名排序，一次归并找到每列的最新 Cell，
+     * 不像 Result.getColumnLatestCell 那样每列构造一个查找用的 KeyValue 再二分
+     */
+    private void index() {
+        if (cells == null || cells.length != schema.size()) {
+            cells = new Cell[schema.size()];
+        } else {
+            Arrays.fill(cells, null);
+        }
+        indexed = true;
+        Cell[] raw = result.rawCells();
+        if (raw == null) {
+            return;
+        }
+        HbaseRowSchema.Column[] columns = schema.getSortedColumns();
+        int c = 0;
+        for (Cell cell : raw) {
+            int cmp = 0;
+            while (c < columns.length && (cmp = compare(columns[c], cell)) < 0) {
+                c++;
+            }
+            if (c == columns.length) {
+                return;
+            }
+            // 同一列的多个版本按时间戳倒序排列，第一个即最新
+            if (cmp == 0 && cells[columns[c].getIndex()] == null) {
+                cells[columns[c].getIndex()] = cell;
+            }
+        }
+    }
+
+    private static int compare(HbaseRowSchema.Column column, Cell cell) {
+        byte[] family = column.getFamily();
+        int c = Bytes.compareTo(family, 0, family.length,
+                cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+        if (c != 0) {
+            return c;
+        }
+        byte[] qualifier = column.getQualifier();
+        return Bytes.compareTo(qualifier, 0, qualifier.length,
+                cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+    }
+
+    /**
+     * 解析十进制文本整数
+     */
+    static long parseLong(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            throw new NumberFormatException("空字符串不是整数");
+        }
+        int i = offset;
+        int end = offset + length;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') {
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException(Bytes.toString(bytes, offset, length));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(Bytes.toString(bytes, offset, length));
+            }
+            // 按负数累加，Long.MIN_VALUE 也能正确解析
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("整数溢出:" + Bytes.toString(bytes, offset, length));
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                throw new NumberFormatException("整数溢出:" + Bytes.toString(bytes, offset, length));
+            }
+            return -value;
+        }
+        return value;
+    }
+
+    /**
+     * 解析十进制文本浮点数，尾数不超过 2^53 且指数在 ±22 以内时直接换算（结果与 Double.parseDouble 一致），
+     * 其余情况回退到 Double.parseDouble
+     */
+    static double parseDouble(byte[] bytes, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean dot = false;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                if (mantissa >= MAX_EXACT_MANTISSA / 10) {
+                    return Double.parseDouble(Bytes.toString(bytes, offset, length));
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (dot) {
+                    exponent--;
+                }
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else {
+                // 科学计数法、NaN、Infinity 等
+                return Double.parseDouble(Bytes.toString(bytes, offset, length));
+            }
+        }
+        if (digits == 0 || -exponent >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(Bytes.toString(bytes, offset, length));
+        }
+
+        double value = exponent == 0 ? mantissa : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.util;
+
+/**
+ * @ClassName HbaseTypedRowCallback
+ * @Describe 按 schema 解码的流式遍历回调
+ * @create 2026-10-18 15:50
+ * @Version 1.0
+ **/
+@FunctionalInterface
+public interface HbaseTypedRowCallback {
+
+    /**
+     * 处理一行数据
+     * @param row 行数据，回调返回后会被复用
+     * @return boolean 返回 false 时停止遍历并关闭 scanner
+     */
+    boolean onRow(HbaseTypedRow row);
+}
@@ -1,20 +1,51 @@
 package com.example.util;
 
+import com.example.config.HbaseProperties;
+import com.example.model.ColumnFamilyOptions;
+import com.example.model.HbasePage;
+import com.example.model.HbaseRow;
+import com.example.model.HbaseTimelineRow;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.*;
 import org.apache.hadoop.hbase.filter.*;
+import org.apache.hadoop.hbase.tool.LoadIncrementalHFiles;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.springframework.stereotype.Component;
 
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @ClassName HbaseUtil
@@ -23,18 +54,125 @@ import java.util.*;
  * @Version 1.0
  **/
 @Slf4j
-public class HbaseUtil {
+public class HbaseUtil implements Closeable {
+
+    /**
+     * 内置 scan profile，同名的自定义 profile 在其上覆盖
+     */
+    private static final Map<String, HbaseProperties.ScanProfile> BUILT_IN_SCAN_PROFILES = HbaseProperties.ScanProfile.defaults();
+
+    /**
+     * 关闭时等待正在执行的累加刷写结束的最长时间（毫秒）
+     */
+    private static final long INCREMENT_FLUSHER_CLOSE_TIMEOUT = 60000;
 
     private Configuration conf = null;
-    private Connection connection = null;
+    /**
+     * 连接池，连接在首次使用时创建
+     */
+    private HbaseConnectionPool connectionPool;
+    private HbaseProperties properties;
+
+    /**
+     * <表名, <连接, BufferedMutator>>，每张表在每个连接上一个长期存活的 BufferedMutator，线程安全，供批量写复用；
+     * 连接池重建连接后，旧连接上的 BufferedMutator 在下次获取时关闭并移除
+     */
+    private final ConcurrentMap<String, ConcurrentMap<Connection, BufferedMutator>> mutators = new ConcurrentHashMap<>();
+
+    /**
+     * 表是否存在、表结构缓存
+     */
+    private HbaseTableMetaCache tableMetaCache;
+
+    /**
+     * getRowData、getColumnValue 的行缓存
+     */
+    private HbaseRowCache rowCache;
+
+    /**
+     * <表名, 列类型定义>
+     */
+    private final ConcurrentMap<String, HbaseRowSchema> rowSchemas = new ConcurrentHashMap<>();
+
+    /**
+     * <表名, 行键加盐策略>，加盐的表读写时自动转换行键，scan 自动分桶并发执行
+     */
+    private final ConcurrentMap<String, RowKeySalter> salters = new ConcurrentHashMap<>();
+
+    /**
+     * 并行 scan 线程池，首次使用时创建
+     */
+    private volatile ExecutorService scanExecutor;
+
+    /**
+     * 并行 scan 线程池的线程许可，与线程数相等
+     */
+    private volatile Semaphore scanSlots;
+
+    /**
+     * 操作耗时、吞吐指标
+     */
+    private HbaseMetrics metrics;
+
+    /**
+     * 计数器累加合并缓冲区
+     */
+    private HbaseIncrementBuffer incrementBuffer;
+
+    /**
+     * 开启了副本读的表的单行对冲读
+     */
+    private HbaseHedgedReader hedgedReader;
+
+    /**
+     * <表名, <列名, 二级索引>>
+     */
+    private final ConcurrentMap<String, Map<String, HbaseIndex>> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * 定时刷写累加缓冲区的线程，首次累加时创建
+     */
+    private volatile ScheduledExecutorService incrementFlusher;
+
+    /**
+     * 是否已提交一次因缓冲区满触发的刷写，避免重复提交
+     */
+    private final AtomicBoolean incrementFlushRequested = new AtomicBoolean();
+
+    /**
+     * 批量写失败回调，默认只打印日志
+     */
+    private volatile HbaseWriteFailureListener writeFailureListener = (tableName, rowKey, cause) ->
+            log.error(MessageFormat.format("批量写入失败,tableName:{0},rowKey:{1}", tableName, rowKey), cause);
 
     public HbaseUtil(Configuration conf) {
+        this(conf, new HbaseProperties());
+    }
+
+    public HbaseUtil(Configuration conf, HbaseProperties properties) {
+        this(conf, properties, null);
+    }
+
+    /**
+     * @param conf HBase 配置
+     * @param properties 配置
+     * @param registry 指标注册表，为 null 时不发布指标
+     */
+    public HbaseUtil(Configuration conf, HbaseProperties properties, MeterRegistry registry) {
         this.conf = conf;
-        try {
-            connection = ConnectionFactory.createConnection(conf);
-        } catch (IOException e) {
-            log.error("获取 HBase 连接失败");
+        this.properties = properties;
+        if (properties.getMetrics().isClientMetricsEnabled()) {
+            conf.setBoolean(MetricsConnection.CLIENT_SIDE_METRICS_ENABLED_KEY, true);
         }
+        connectionPool = new HbaseConnectionPool(conf, properties.getConnectionPool());
+        tableMetaCache = new HbaseTableMetaCache(connectionPool, properties.getMetaCacheTtl());
+        rowCache = new HbaseRowCache(properties.getRowCache().getMaxBytes(), properties.getRowCache().getTables());
+        properties.getSaltBuckets().forEach((tableName, buckets) -> salters.put(tableName, new HashRowKeySalter(buckets)));
+        metrics = new HbaseMetrics(registry, properties.getMetrics());
+        rowCache.bindTo(metrics.getRegistry());
+        connectionPool.bindTo(metrics.getRegistry());
+        incrementBuffer = new HbaseIncrementBuffer(properties.getIncrementBuffer().getStripes());
+        hedgedReader = new HbaseHedgedReader(properties.getReplicaRead(), metrics);
     }
 
     /**
@@ -44,18 +182,23 @@ public class HbaseUtil {
      * @return void
      */
     public boolean createTable(String tableName, List<String> columnFamily) {
+        return createTable(tableName, toFamilyOptions(columnFamily));
+    }
+
+    /**
+     * 创建表，每个列族单独指定压缩、编码、布隆过滤器等参数
+     * @param tableName 表名
+     * @param families <列族名, 列族参数>，参数为 null 时使用默认值
+     * @return 是否创建成功
+     */
+    public boolean createTable(String tableName, Map<String, ColumnFamilyOptions> families) {
         Admin admin = null;
         try {
-            admin = connection.getAdmin();
-
-            final List<ColumnFamilyDescriptor> familyDescriptors = new ArrayList<ColumnFamilyDescriptor>(columnFamily.size());
-
-            columnFamily.forEach(cf -> {
-                familyDescriptors.add(ColumnFamilyDescriptorBuilder.newBuilder(Bytes.toBytes(cf)).build());
-            });
+            admin = connection(tableName).getAdmin();
 
             TableDescriptor tableDescriptor = TableDescriptorBuilder.newBuilder(TableName.valueOf(tableName))
-                    .setColumnFamilies(familyDescriptors)
+                    .setColumnFamilies(buildFamilyDescriptors(families))
+                    .setRegionReplication(hedgedReader.replicas(tableName))
                     .build();
 
             if (admin.tableExists(TableName.valueOf(tableName))) {
@@ -70,6 +213,7 @@ public class HbaseUtil {
             log.error(MessageFormat.format("创建表{0}失败", tableName), e);
             return false;
         } finally {
+            tableMetaCache.invalidate(tableName);
             close(admin,null,null);
         }
         return true;
@@ -83,41 +227,141 @@ public class HbaseUtil {
      * @return 是否创建成功
      */
     public boolean createTableBySplitKeys(String tableName, List<String> columnFamily, byte[][] splitKeys) {
+        return createTableBySplitKeys(tableName, toFamilyOptions(columnFamily), splitKeys);
+    }
+
+    /**
+     * 预分区创建表，每个列族单独指定压缩、编码、布隆过滤器等参数
+     * @param tableName 表名
+     * @param families <列族名, 列族参数>，参数为 null 时使用默认值
+     * @param splitKeys 预分区 region
+     * @return 是否创建成功
+     */
+    public boolean createTableBySplitKeys(String tableName, Map<String, ColumnFamilyOptions> families, byte[][] splitKeys) {
         Admin admin = null;
         try {
-            if (StringUtils.isBlank(tableName) || columnFamily == null || columnFamily.size() == 0) {
+            if (StringUtils.isBlank(tableName) || families == null || families.size() == 0) {
                 log.error("===Parameters tableName|columnFamily should not be null,Please check!===");
                 return false;
             }
-            admin = connection.getAdmin();
+            admin = connection(tableName).getAdmin();
             if (admin.tableExists(TableName.valueOf(tableName))) {
                 return true;
             } else {
-                List<ColumnFamilyDescriptor> familyDescriptors = new ArrayList<>(columnFamily.size());
-
-                columnFamily.forEach(cf -> {
-                    familyDescriptors.add(ColumnFamilyDescriptorBuilder.newBuilder(Bytes.toBytes(cf)).build());
-                });
-
                 TableDescriptor tableDescriptor = TableDescriptorBuilder.newBuilder(TableName.valueOf(tableName))
-                        .setColumnFamilies(familyDescriptors)
+                        .setColumnFamilies(buildFamilyDescriptors(families))
+                        .setRegionReplication(hedgedReader.replicas(tableName))
                         .build();
 
                 // 指定 splitkeys
                 admin.createTable(tableDescriptor, splitKeys);
                 log.info("===Create Table " + tableName
-                        + " Success!columnFamily:" + columnFamily.toString()
+                        + " Success!columnFamily:" + families.keySet()
                         + "===");
             }
         } catch (IOException e) {
             log.error("", e);
             return false;
         } finally {
+            tableMetaCache.invalidate(tableName);
+            close(admin, null, null);
+        }
+        return true;
+    }
+
+    /**
+     * 修改已有列族的参数，列族不存在时新增；只修改 options 中不为 null 的参数，
+     * 新的压缩、编码对已有数据在 compaction 后生效
+     * @param tableName 表名
+     * @param familyName 列族名
+     * @param options 列族参数
+     * @return 是否修改成功
+     */
+    public boolean modifyColumnFamily(String tableName, String familyName, ColumnFamilyOptions options) {
+        Admin admin = null;
+        try {
+            admin = connection(tableName).getAdmin();
+            // 修改前读取最新的表结构，不使用缓存，避免覆盖其他客户端的修改
+            ColumnFamilyDescriptor existing = admin.getDescriptor(TableName.valueOf(tableName))
+                    .getColumnFamily(Bytes.toBytes(familyName));
+            if (existing == null) {
+                admin.addColumnFamily(TableName.valueOf(tableName), buildFamilyDescriptor(familyName, options));
+                log.debug(MessageFormat.format("familyName({0}) is added!", familyName));
+            } else {
+                admin.modifyColumnFamily(TableName.valueOf(tableName),
+                        applyFamilyOptions(ColumnFamilyDescriptorBuilder.newBuilder(existing), options).build());
+                log.debug(MessageFormat.format("familyName({0}) is modified!", familyName));
+            }
+        } catch (IOException e) {
+            log.error(MessageFormat.format("修改列族失败,tableName:{0},familyName:{1}", tableName, familyName), e);
+            return false;
+        } finally {
+            tableMetaCache.invalidate(tableName);
             close(admin, null, null);
         }
         return true;
     }
 
+    /**
+     * 列族名集合转换为使用默认参数的 <列族名, 列族参数>
+     */
+    private static Map<String, ColumnFamilyOptions> toFamilyOptions(List<String> columnFamily) {
+        if (columnFamily == null) {
+            return null;
+        }
+        Map<String, ColumnFamilyOptions> families = new LinkedHashMap<>();
+        columnFamily.forEach(cf -> families.put(cf, null));
+        return families;
+    }
+
+    private static List<ColumnFamilyDescriptor> buildFamilyDescriptors(Map<String, ColumnFamilyOptions> families) {
+        List<ColumnFamilyDescriptor> familyDescriptors = new ArrayList<>(families.size());
+        families.forEach((family, options) -> familyDescriptors.add(buildFamilyDescriptor(family, options)));
+        return familyDescriptors;
+    }
+
+    /**
+     * 构造列族描述
+     * @param familyName 列族名
+     * @param options 列族参数，为 null 时使用默认值
+     * @return org.apache.hadoop.hbase.client.ColumnFamilyDescriptor
+     */
+    public static ColumnFamilyDescriptor buildFamilyDescriptor(String familyName, ColumnFamilyOptions options) {
+        return applyFamilyOptions(ColumnFamilyDescriptorBuilder.newBuilder(Bytes.toBytes(familyName)), options).build();
+    }
+
+    private static ColumnFamilyDescriptorBuilder applyFamilyOptions(ColumnFamilyDescriptorBuilder builder,
+                                                                    ColumnFamilyOptions options) {
+        if (options == null) {
+            return builder;
+        }
+        if (options.getCompression() != null) {
+            builder.setCompressionType(options.getCompression());
+        }
+        if (options.getBloomFilter() != null) {
+            builder.setBloomFilterType(options.getBloomFilter());
+        }
+        if (options.getBlockSize() != null) {
+            builder.setBlocksize(options.getBlockSize());
+        }
+        if (options.getDataBlockEncoding() != null) {
+            builder.setDataBlockEncoding(options.getDataBlockEncoding());
+        }
+        if (options.getInMemory() != null) {
+            builder.setInMemory(options.getInMemory());
+        }
+        if (options.getTimeToLive() != null) {
+            builder.setTimeToLive(options.getTimeToLive());
+        }
+        if (options.getMaxVersions() != null) {
+            builder.setMaxVersions(options.getMaxVersions());
+        }
+        if (options.getBlockCacheEnabled() != null) {
+            builder.setBlockCacheEnabled(options.getBlockCacheEnabled());
+        }
+        return builder;
+    }
+
     /**
      * 自定义获取分区 splitKeys
      * @param keys
@@ -169,6 +413,67 @@ public class HbaseUtil {
         return splits;
     }
 
+    /**
+     * 根据行键样本计算 splitKeys，用于 createTableBySplitKeys
+     * @param rowKeys 行键样本
+     * @param numRegions region 数
+     * @return byte[][]
+     */
+    public byte[][] planSplitKeys(Iterator<String> rowKeys, int numRegions) {
+        SplitKeyPlanner planner = new SplitKeyPlanner();
+        planner.addAll(rowKeys);
+        return planner.computeSplitKeys(numRegions);
+    }
+
+    /**
+     * 根据本地文件中的行键样本（每行一个）计算 splitKeys
+     * @param path 文件路径
+     * @param numRegions region 数
+     * @return byte[][] 读取失败时返回 null
+     */
+    public byte[][] planSplitKeysFromFile(String path, int numRegions) {
+        try (Stream<String> lines = Files.lines(Paths.get(path), StandardCharsets.UTF_8)) {
+            return planSplitKeys(lines.map(String::trim).iterator(), numRegions);
+        } catch (IOException | UncheckedIOException e) {
+            log.error(MessageFormat.format("读取行键样本文件失败,path:{0}", path), e);
+            return null;
+        }
+    }
+
+    /**
+     * 从已有表中抽样行键计算 splitKeys，只传输行键，不传输列值
+     * @param tableName 表名
+     * @param numRegions region 数
+     * @param sampleRate 抽样比例 (0, 1]，大表建议取较小值以减少扫描传输量
+     * @return byte[][] 扫描失败时返回 null
+     */
+    public byte[][] planSplitKeysFromTable(String tableName, int numRegions, float sampleRate) {
+        Scan scan = keyOnlyScan(new Scan());
+        if (sampleRate < 1) {
+            ((FilterList) scan.getFilter()).addFilter(new RandomRowFilter(sampleRate));
+        }
+
+        SplitKeyPlanner planner = new SplitKeyPlanner();
+        ResultScanner rs = null;
+        Table table = null;
+        try {
+            table = getTable(tableName);
+            rs = table.getScanner(scan);
+            for (Result r : rs) {
+                if (!r.isEmpty()) {
+                    planner.add(r.getRow());
+                }
+            }
+        } catch (IOException e) {
+            log.error(MessageFormat.format("抽样表的行键失败,tableName:{0}", tableName), e);
+            return null;
+        } finally {
+            close(null, rs, table);
+        }
+        log.info(MessageFormat.format("抽样表的行键完成,tableName:{0},samples:{1}", tableName, planner.getSeen()));
+        return planner.computeSplitKeys(numRegions);
+    }
+
     /**
      * 获取 table
      * @param tableName 表名
@@ -176,7 +481,31 @@ public class HbaseUtil {
      * @throws IOException
      */
     private Table getTable(String tableName) throws IOException {
-        return connection.getTable(TableName.valueOf(tableName));
+        return connection(tableName).getTable(TableName.valueOf(tableName));
+    }
+
+    /**
+     * 从连接池中取连接，连接不可用时重新创建
+     * @param tableName 表名，为 null 时使用第一个连接
+     * @return org.apache.hadoop.hbase.client.Connection
+     * @throws IOException 连接创建失败
+     */
+    private Connection connection(String tableName) throws IOException {
+        return connectionPool.get(tableName);
+    }
+
+    /**
+     * 获取表结构，优先读取缓存
+     * @param tableName 表名
+     * @return org.apache.hadoop.hbase.client.TableDescriptor 表不存在或查询失败时返回 null
+     */
+    public TableDescriptor getTableDescriptor(String tableName) {
+        try {
+            return tableMetaCache.getDescriptor(tableName);
+        } catch (IOException e) {
+            log.error(MessageFormat.format("获取表结构失败,tableName:{0}", tableName), e);
+            return null;
+        }
     }
 
     /**
@@ -188,7 +517,7 @@ public class HbaseUtil {
 
         Admin admin = null;
         try {
-            admin = connection.getAdmin();
+            admin = connection(null).getAdmin();
             TableName[] tableNames = admin.listTableNames();
             for (TableName tableName : tableNames) {
                 result.add(tableName.getNameAsString());
@@ -208,8 +537,17 @@ public class HbaseUtil {
      * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>>
      */
     public Map<String, Map<String, String>> getResultScanner(String tableName) {
-        Scan scan = new Scan();
-        return this.queryData(tableName, scan);
+        return this.queryData(tableName, defaultProfile(new Scan()));
+    }
+
+    /**
+     * 遍历查询指定表中的所有数据，逐行回调
+     * @param tableName 表名
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean getResultScanner(String tableName, HbaseRowCallback callback) {
+        return this.scanRows(tableName, defaultProfile(new Scan()), callback);
     }
 
     /**
@@ -220,14 +558,19 @@ public class HbaseUtil {
      * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>>
      */
     public Map<String, Map<String, String>> getResultScanner(String tableName, String startRowKey, String stopRowKey){
-        Scan scan = new Scan();
-
-        if (StringUtils.isNoneBlank(startRowKey) && StringUtils.isNoneBlank(stopRowKey)) {
-            scan.withStartRow(Bytes.toBytes(startRowKey));
-            scan.withStartRow(Bytes.toBytes(stopRowKey));
-        }
+        return this.queryData(tableName, defaultProfile(rangeScan(startRowKey, stopRowKey)));
+    }
 
-        return this.queryData(tableName, scan);
+    /**
+     * 根据 startRowKey 和 stopRowKey 遍历查询指定表中的所有数据，逐行回调
+     * @param tableName 表名
+     * @param startRowKey 起始 rowKey
+     * @param stopRowKey 结束 rowKey
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean getResultScanner(String tableName, String startRowKey, String stopRowKey, HbaseRowCallback callback){
+        return this.scanRows(tableName, defaultProfile(rangeScan(startRowKey, stopRowKey)), callback);
     }
 
     /**
@@ -237,14 +580,18 @@ public class HbaseUtil {
      * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>>
      */
     public Map<String, Map<String, String>> getResultScannerPrefixFilter(String tableName, String prefix) {
-        Scan scan = new Scan();
-
-        if (StringUtils.isNoneBlank(prefix)) {
-            Filter filter = new PrefixFilter(Bytes.toBytes(prefix));
-            scan.setFilter(filter);
-        }
+        return this.queryData(tableName, defaultProfile(prefixFilterScan(prefix)));
+    }
 
-        return this.queryData(tableName, scan);
+    /**
+     * 通过行前缀过滤器查询数据，逐行回调
+     * @param tableName 表名
+     * @param prefix 以 prefix 开始的行键
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean getResultScannerPrefixFilter(String tableName, String prefix, HbaseRowCallback callback) {
+        return this.scanRows(tableName, defaultProfile(prefixFilterScan(prefix)), callback);
     }
 
     /**
@@ -254,14 +601,18 @@ public class HbaseUtil {
      * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>>
      */
     public Map<String, Map<String, String>> getResultScannerColumnPrefixFilter(String tableName, String prefix) {
-        Scan scan = new Scan();
-
-        if (StringUtils.isNoneBlank(prefix)) {
-            Filter filter = new ColumnPrefixFilter(Bytes.toBytes(prefix));
-            scan.setFilter(filter);
-        }
+        return this.queryData(tableName, defaultProfile(columnPrefixFilterScan(prefix)));
+    }
 
-        return this.queryData(tableName, scan);
+    /**
+     * 通过列前缀过滤器查询数据，逐行回调
+     * @param tableName 表名
+     * @param prefix 以 prefix 开始的列名
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean getResultScannerColumnPrefixFilter(String tableName, String prefix, HbaseRowCallback callback) {
+        return this.scanRows(tableName, defaultProfile(columnPrefixFilterScan(prefix)), callback);
     }
 
     /**
@@ -271,14 +622,18 @@ public class HbaseUtil {
      * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>>
      */
     public Map<String, Map<String, String>> getResultScannerRowFilter(String tableName, String keyword) {
-        Scan scan = new Scan();
-
-        if (StringUtils.isNoneBlank(keyword)) {
-            Filter filter = new RowFilter(CompareOperator.GREATER_OR_EQUAL, new SubstringComparator(keyword));
-            scan.setFilter(filter);
-        }
+        return this.queryData(tableName, defaultProfile(rowFilterScan(keyword)));
+    }
 
-        return this.queryData(tableName, scan);
+    /**
+     * 查询行键中包含特定字符的数据，逐行回调
+     * @param tableName 表名
+     * @param keyword 包含指定关键词的行键
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean getResultScannerRowFilter(String tableName, String keyword, HbaseRowCallback callback) {
+        return this.scanRows(tableName, defaultProfile(rowFilterScan(keyword)), callback);
     }
 
     /**
@@ -288,71 +643,903 @@ public class HbaseUtil {
      * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>>
      */
     public Map<String, Map<String, String>> getResultScannerQualifierFilter(String tableName, String keyword) {
-        Scan scan = new Scan();
+        return this.queryData(tableName, defaultProfile(qualifierFilterScan(keyword)));
+    }
 
-        if (StringUtils.isNoneBlank(keyword)) {
-            Filter filter = new QualifierFilter(CompareOperator.GREATER_OR_EQUAL, new SubstringComparator(keyword));
-            scan.setFilter(filter);
-        }
+    /**
+     * 查询列名中包含特定字符的数据，逐行回调
+     * @param tableName 表名
+     * @param keyword 包含指定关键词的列名
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean getResultScannerQualifierFilter(String tableName, String keyword, HbaseRowCallback callback) {
+        return this.scanRows(tableName, defaultProfile(qualifierFilterScan(keyword)), callback);
+    }
 
-        return this.queryData(tableName, scan);
+    /**
+     * 根据 startRowKey 和 stopRowKey 遍历查询指定表中的所有数据，使用指定的 scan profile，逐行回调
+     * @param tableName 表名
+     * @param startRowKey 起始 rowKey
+     * @param stopRowKey 结束 rowKey
+     * @param profile scan profile 名称，如 interactive、bulk-export、wide-row
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean getResultScanner(String tableName, String startRowKey, String stopRowKey, String profile, HbaseRowCallback callback){
+        return this.scanRows(tableName, applyScanProfile(rangeScan(startRowKey, stopRowKey), profile), callback);
     }
 
     /**
-     * 通过表名以及过滤条件查询数据
+     * 按组合查询条件查询数据，过滤在 RegionServer 上执行
      * @param tableName 表名
-     * @param scan 过滤条件
+     * @param query 查询条件
      * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>>
      */
-    private Map<String, Map<String, String>> queryData(String tableName, Scan scan) {
-        // <rowKey, 对应的行数据>
-        Map<String, Map<String, String>> result = new HashMap<>();
-
-        ResultScanner rs = null;
-        // 获取表
-        Table table = null;
-        try {
-            table = getTable(tableName);
-            rs = table.getScanner(scan);
-            for (Result r : rs) {
-                // 每一行数据
-                Map<String, String> columnMap = new HashMap<>();
-                String rowKey = null;
-                for (Cell cell : r.listCells()) {
-                    if (rowKey == null) {
-                        rowKey = Bytes.toString(cell.getRowArray(), cell.getRowOffset(), cell.getRowLength());
-                    }
-                    columnMap.put(Bytes.toString(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength()), Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
-                }
-                if (rowKey != null) {
-                    result.put(rowKey, columnMap);
-                }
-            }
-        } catch (IOException e) {
-            log.error(MessageFormat.format("遍历查询指定表中的所有数据失败,tableName:{0}", tableName), e);
-        } finally {
-            close(null, rs, table);
-        }
+    public Map<String, Map<String, String>> query(String tableName, HbaseQuery query) {
+        Map<String, Map<String, String>> result = new LinkedHashMap<>();
+        query(tableName, query, row -> {
+            result.merge(row.getRowKey(), row.getColumns(), (oldColumns, newColumns) -> {
+                oldColumns.putAll(newColumns);
+                return oldColumns;
+            });
+            return true;
+        });
         return result;
     }
 
     /**
-     * 根据 tableName 和 rowKey 精确查询一行的数据
+     * 按组合查询条件查询数据，逐行回调
      * @param tableName 表名
-     * @param rowKey 行键
-     * @return java.util.Map<java.lang.String,java.lang.String> 返回一行的数据
+     * @param query 查询条件
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
      */
-    public Map<String, String> getRowData(String tableName, String rowKey) {
-        // 返回的键值对
-        Map<String, String> result = new HashMap<>();
+    public boolean query(String tableName, HbaseQuery query, HbaseRowCallback callback) {
+        Scan scan = defaultProfile(query.toScan());
+        if (query.getLimit() == null) {
+            return scanRows(tableName, scan, callback);
+        }
 
-        Get get = new Get(Bytes.toBytes(rowKey));
-        // 获取表
-        Table table = null;
-        try {
-            table = getTable(tableName);
-            Result tableResult = table.get(get);
-            if (tableResult != null && !tableResult.isEmpty()) {
+        // 加盐表的每个分桶各自 limit，归并后在客户端截断；设置了 batch 时同一行会分多次返回
+        int limit = query.getLimit();
+        int[] count = {0};
+        String[] lastRowKey = {null};
+        return scanRows(tableName, scan, row -> {
+            if (!row.getRowKey().equals(lastRowKey[0])) {
+                if (count[0] == limit) {
+                    return false;
+                }
+                count[0]++;
+                lastRowKey[0] = row.getRowKey();
+            }
+            return callback.onRow(row);
+        });
+    }
+
+    /**
+     * 按 profile 设置 Scan 的 caching、batch、maxResultSize、cacheBlocks、readType，
+     * 自定义 profile 与同名内置 profile 逐项合并，都未配置的项保持 Scan 原值
+     * @param scan Scan
+     * @param profile scan profile 名称，为空时不做修改
+     * @return org.apache.hadoop.hbase.client.Scan
+     */
+    public Scan applyScanProfile(Scan scan, String profile) {
+        if (StringUtils.isBlank(profile)) {
+            return scan;
+        }
+        HbaseProperties.ScanProfile builtIn = BUILT_IN_SCAN_PROFILES.get(profile);
+        HbaseProperties.ScanProfile custom = properties.getScan().getProfiles().get(profile);
+        if (builtIn == null && custom == null) {
+            log.warn(MessageFormat.format("scan profile 不存在,profile:{0}", profile));
+            return scan;
+        }
+        // 自定义 profile 只覆盖其中配置了的项，其余沿用同名内置 profile
+        applyScanProfile(scan, builtIn);
+        applyScanProfile(scan, custom);
+        return scan;
+    }
+
+    private static void applyScanProfile(Scan scan, HbaseProperties.ScanProfile scanProfile) {
+        if (scanProfile == null) {
+            return;
+        }
+        if (scanProfile.getCaching() != null) {
+            scan.setCaching(scanProfile.getCaching());
+        }
+        if (scanProfile.getBatch() != null) {
+            scan.setBatch(scanProfile.getBatch());
+        }
+        if (scanProfile.getMaxResultSize() != null) {
+            scan.setMaxResultSize(scanProfile.getMaxResultSize());
+        }
+        if (scanProfile.getCacheBlocks() != null) {
+            scan.setCacheBlocks(scanProfile.getCacheBlocks());
+        }
+        if (scanProfile.getReadType() != null) {
+            scan.setReadType(scanProfile.getReadType());
+        }
+    }
+
+    /**
+     * 按默认 profile 调优 Scan
+     */
+    private Scan defaultProfile(Scan scan) {
+        return applyScanProfile(scan, properties.getScan().getDefaultProfile());
+    }
+
+    /**
+     * 按 startRowKey（包含）、stopRowKey（不包含）构造 Scan，为空的一端不限制
+     */
+    private Scan rangeScan(String startRowKey, String stopRowKey) {
+        Scan scan = new Scan();
+
+        if (StringUtils.isNoneBlank(startRowKey)) {
+            scan.withStartRow(Bytes.toBytes(startRowKey));
+        }
+        if (StringUtils.isNoneBlank(stopRowKey)) {
+            scan.withStopRow(Bytes.toBytes(stopRowKey));
+        }
+
+        return scan;
+    }
+
+    /**
+     * 行前缀过滤 Scan
+     */
+    private Scan prefixFilterScan(String prefix) {
+        Scan scan = new Scan();
+
+        if (StringUtils.isNoneBlank(prefix)) {
+            // 用起止行键限定范围，只扫描前缀所在的 region，加盐的表也能按分桶改写
+            scan.setRowPrefixFilter(Bytes.toBytes(prefix));
+        }
+
+        return scan;
+    }
+
+    /**
+     * 列前缀过滤 Scan
+     */
+    private Scan columnPrefixFilterScan(String prefix) {
+        Scan scan = new Scan();
+
+        if (StringUtils.isNoneBlank(prefix)) {
+            Filter filter = new ColumnPrefixFilter(Bytes.toBytes(prefix));
+            scan.setFilter(filter);
+        }
+
+        return scan;
+    }
+
+    /**
+     * 行键包含关键词的 Scan
+     */
+    private Scan rowFilterScan(String keyword) {
+        Scan scan = new Scan();
+
+        if (StringUtils.isNoneBlank(keyword)) {
+            Filter filter = new RowFilter(CompareOperator.GREATER_OR_EQUAL, new SubstringComparator(keyword));
+            scan.setFilter(filter);
+        }
+
+        return scan;
+    }
+
+    /**
+     * 列名包含关键词的 Scan
+     */
+    private Scan qualifierFilterScan(String keyword) {
+        Scan scan = new Scan();
+
+        if (StringUtils.isNoneBlank(keyword)) {
+            Filter filter = new QualifierFilter(CompareOperator.GREATER_OR_EQUAL, new SubstringComparator(keyword));
+            scan.setFilter(filter);
+        }
+
+        return scan;
+    }
+
+    /**
+     * 通过表名以及过滤条件查询数据
+     * @param tableName 表名
+     * @param scan 过滤条件
+     * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>>
+     */
+    private Map<String, Map<String, String>> queryData(String tableName, Scan scan) {
+        // <rowKey, 对应的行数据>
+        Map<String, Map<String, String>> result = new HashMap<>();
+
+        scanRows(tableName, scan, row -> {
+            // 设置了 batch 时同一行会分多次返回，需要合并
+            result.merge(row.getRowKey(), row.getColumns(), (oldColumns, newColumns) -> {
+                oldColumns.putAll(newColumns);
+                return oldColumns;
+            });
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * 使用指定的 scan profile 流式遍历数据
+     * @param tableName 表名
+     * @param scan 过滤条件
+     * @param profile scan profile 名称
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean scanRows(String tableName, Scan scan, String profile, HbaseRowCallback callback) {
+        return scanRows(tableName, applyScanProfile(scan, profile), callback);
+    }
+
+    /**
+     * 通过表名以及过滤条件流式遍历数据，ResultScanner 每返回一行就回调一次，不在内存中累积结果
+     * @param tableName 表名
+     * @param scan 过滤条件
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean scanRows(String tableName, Scan scan, HbaseRowCallback callback) {
+        HbaseMetrics.Call call = metrics.start("scan", tableName);
+        if (salters.containsKey(tableName)) {
+            try {
+                return saltedScan(tableName, scan, ParallelScanMode.ORDERED, call,
+                        r -> callback.onRow(toHbaseRow(tableName, r)));
+            } finally {
+                call.stop();
+            }
+        }
+
+        ResultScanner rs = null;
+        // 获取表
+        Table table = null;
+        try {
+            table = getTable(tableName);
+            rs = table.getScanner(scan);
+            for (Result r : rs) {
+                if (r.isEmpty()) {
+                    continue;
+                }
+                call.result(r);
+                if (!callback.onRow(toHbaseRow(tableName, r))) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("遍历查询指定表中的所有数据失败,tableName:{0}", tableName), e);
+            return false;
+        } finally {
+            call.stop();
+            close(null, rs, table);
+        }
+        return true;
+    }
+
+    /**
+     * 使用指定的 scan profile 获取数据流，使用完毕必须关闭
+     * @param tableName 表名
+     * @param scan 过滤条件
+     * @param profile scan profile 名称
+     * @return java.util.stream.Stream<com.example.model.HbaseRow>
+     */
+    public Stream<HbaseRow> streamRows(String tableName, Scan scan, String profile) {
+        return streamRows(tableName, applyScanProfile(scan, profile));
+    }
+
+    /**
+     * 通过表名以及过滤条件获取数据流，行在 ResultScanner 返回时才转换，
+     * 使用完毕必须关闭（try-with-resources），以释放服务端 scanner
+     * @param tableName 表名
+     * @param scan 过滤条件
+     * @return java.util.stream.Stream<com.example.model.HbaseRow>
+     */
+    public Stream<HbaseRow> streamRows(String tableName, Scan scan) {
+        RowKeySalter salter = salters.get(tableName);
+        Table table = null;
+        List<ResultScanner> scanners = new ArrayList<>();
+        Iterator<Result> iterator;
+        try {
+            table = getTable(tableName);
+            if (salter == null) {
+                ResultScanner rs = table.getScanner(scan);
+                scanners.add(rs);
+                iterator = rs.iterator();
+            } else {
+                // 加盐的表每个分桶一个 scanner，在调用线程中按逻辑行键归并
+                List<Iterator<Result>> iterators = new ArrayList<>();
+                for (Scan subScan : ParallelScanner.splitByPrefixes(salter.getPrefixes(), scan)) {
+                    ResultScanner rs = table.getScanner(subScan);
+                    scanners.add(rs);
+                    iterators.add(rs.iterator());
+                }
+                iterator = ParallelScanner.mergeSorted(iterators, logicalRowComparator(salter));
+            }
+        } catch (IOException e) {
+            log.error(MessageFormat.format("遍历查询指定表中的所有数据失败,tableName:{0}", tableName), e);
+            scanners.forEach(rs -> close(null, rs, null));
+            close(null, null, table);
+            return Stream.empty();
+        }
+
+        final Table openedTable = table;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .filter(r -> !r.isEmpty())
+                .map(r -> toHbaseRow(tableName, r))
+                .onClose(() -> {
+                    scanners.forEach(rs -> close(null, rs, null));
+                    close(null, null, openedTable);
+                });
+    }
+
+    /**
+     * 根据 startRowKey 和 stopRowKey 分页查询数据
+     * @param tableName 表名
+     * @param startRowKey 起始 rowKey
+     * @param stopRowKey 结束 rowKey
+     * @param pageSize 每页最多行数
+     * @param pageToken 上一页返回的令牌，查询第一页时为 null
+     * @return com.example.model.HbasePage 查询失败时返回 null
+     */
+    public HbasePage getResultScannerPage(String tableName, String startRowKey, String stopRowKey, int pageSize, String pageToken) {
+        return scanPage(tableName, defaultProfile(rangeScan(startRowKey, stopRowKey)), pageSize, pageToken);
+    }
+
+    /**
+     * 通过行前缀分页查询数据
+     * @param tableName 表名
+     * @param prefix 以 prefix 开始的行键
+     * @param pageSize 每页最多行数
+     * @param pageToken 上一页返回的令牌，查询第一页时为 null
+     * @return com.example.model.HbasePage 查询失败时返回 null
+     */
+    public HbasePage getResultScannerPrefixFilterPage(String tableName, String prefix, int pageSize, String pageToken) {
+        return scanPage(tableName, defaultProfile(prefixFilterScan(prefix)), pageSize, pageToken);
+    }
+
+    /**
+     * 分页查询：每页使用一个新的 scan，从上一页最后一个行键之后开始，最多读取 pageSize + 1 行，
+     * 读完即关闭，页与页之间不占用服务端 scanner
+     * @param tableName 表名
+     * @param scan 查询条件，每一页都必须传入相同的条件，不会被修改
+     * @param pageSize 每页最多行数
+     * @param pageToken 上一页返回的令牌，查询第一页时为 null
+     * @return com.example.model.HbasePage 查询失败时返回 null
+     * @throws IllegalArgumentException 令牌格式错误或与查询条件不匹配
+     */
+    public HbasePage scanPage(String tableName, Scan scan, int pageSize, String pageToken) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize 必须大于 0:" + pageSize);
+        }
+
+        Scan pageScan;
+        try {
+            pageScan = new Scan(scan);
+            if (StringUtils.isNotEmpty(pageToken)) {
+                pageScan.withStartRow(HbasePageToken.decode(scan, pageToken), false);
+            }
+        } catch (IOException e) {
+            log.error(MessageFormat.format("分页查询失败,tableName:{0}", tableName), e);
+            return null;
+        }
+        // 多读一行用于判断是否还有下一页
+        pageScan.setLimit(pageSize + 1);
+
+        // 设置了 batch 时同一行会分多次返回，按行键合并
+        LinkedHashMap<String, HbaseRow> rows = new LinkedHashMap<>();
+        boolean[] hasMore = {false};
+        boolean success = scanRows(tableName, pageScan, row -> {
+            HbaseRow existing = rows.get(row.getRowKey());
+            if (existing != null) {
+                existing.getColumns().putAll(row.getColumns());
+                return true;
+            }
+            if (rows.size() == pageSize) {
+                hasMore[0] = true;
+                return false;
+            }
+            rows.put(row.getRowKey(), row);
+            return true;
+        });
+        if (!success) {
+            return null;
+        }
+
+        String nextToken = null;
+        if (hasMore[0]) {
+            String lastRowKey = null;
+            for (String rowKey : rows.keySet()) {
+                lastRowKey = rowKey;
+            }
+            try {
+                nextToken = HbasePageToken.encode(scan, Bytes.toBytes(lastRowKey));
+            } catch (IOException e) {
+                log.error(MessageFormat.format("分页查询失败,tableName:{0}", tableName), e);
+                return null;
+            }
+        }
+        return new HbasePage(new ArrayList<>(rows.values()), nextToken);
+    }
+
+    /**
+     * 根据 startRowKey 和 stopRowKey 按 region 并行查询数据
+     * @param tableName 表名
+     * @param startRowKey 起始 rowKey
+     * @param stopRowKey 结束 rowKey
+     * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>>
+     */
+    public Map<String, Map<String, String>> getResultScannerParallel(String tableName, String startRowKey, String stopRowKey) {
+        Map<String, Map<String, String>> result = new HashMap<>();
+        getResultScannerParallel(tableName, startRowKey, stopRowKey, ParallelScanMode.UNORDERED, row -> {
+            result.merge(row.getRowKey(), row.getColumns(), (oldColumns, newColumns) -> {
+                oldColumns.putAll(newColumns);
+                return oldColumns;
+            });
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * 根据 startRowKey 和 stopRowKey 按 region 并行查询数据，逐行回调
+     * @param tableName 表名
+     * @param startRowKey 起始 rowKey
+     * @param stopRowKey 结束 rowKey
+     * @param mode 合并方式，UNORDERED 最快，ORDERED 按行键顺序回调
+     * @param callback 行回调，在调用线程中执行，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean getResultScannerParallel(String tableName, String startRowKey, String stopRowKey,
+                                            ParallelScanMode mode, HbaseRowCallback callback) {
+        return parallelScan(tableName, defaultProfile(rangeScan(startRowKey, stopRowKey)), mode, callback);
+    }
+
+    /**
+     * 按 region 边界将 scan 拆分为多个子 scan，在有界线程池中并发执行
+     * @param tableName 表名
+     * @param scan 过滤条件
+     * @param mode 合并方式，UNORDERED 最快，ORDERED 按行键顺序回调
+     * @param callback 行回调，在调用线程中执行，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean parallelScan(String tableName, Scan scan, ParallelScanMode mode, HbaseRowCallback callback) {
+        HbaseMetrics.Call call = metrics.start("parallel_scan", tableName);
+        if (salters.containsKey(tableName)) {
+            try {
+                return saltedScan(tableName, scan, mode, call, r -> callback.onRow(toHbaseRow(tableName, r)));
+            } finally {
+                call.stop();
+            }
+        }
+
+        try (RegionLocator locator = connection(tableName).getRegionLocator(TableName.valueOf(tableName))) {
+            List<Scan> subScans = ParallelScanner.splitByRegions(locator, scan);
+            // 行在子 scan 线程中转换，这里只统计行数
+            newParallelScanner(tableName, subScans, HbaseUtil::toHbaseRow).scan(mode, null, row -> {
+                call.rows(1);
+                return callback.onRow(row);
+            });
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("并行遍历查询数据失败,tableName:{0}", tableName), e);
+            return false;
+        } finally {
+            call.stop();
+        }
+        return true;
+    }
+
+    /**
+     * 根据 startRowKey 和 stopRowKey 统计行数，按 region 并行扫描，每行只传输第一个列的行键
+     * @param tableName 表名
+     * @param startRowKey 起始 rowKey，为空时不限制
+     * @param stopRowKey 结束 rowKey，为空时不限制
+     * @return long 行数，统计失败时返回 -1
+     */
+    public long countRows(String tableName, String startRowKey, String stopRowKey) {
+        return countRows(tableName, keyOnlyScan(rangeScan(startRowKey, stopRowKey)));
+    }
+
+    /**
+     * 统计以 prefix 开始的行数
+     * @param tableName 表名
+     * @param prefix 行键前缀，为空时统计全表
+     * @return long 行数，统计失败时返回 -1
+     */
+    public long countRowsByPrefix(String tableName, String prefix) {
+        return countRows(tableName, keyOnlyScan(prefixFilterScan(prefix)));
+    }
+
+    /**
+     * 根据 startRowKey 和 stopRowKey 按行键顺序列出行键
+     * @param tableName 表名
+     * @param startRowKey 起始 rowKey，为空时不限制
+     * @param stopRowKey 结束 rowKey，为空时不限制
+     * @return java.util.List<java.lang.String> 查询失败时返回空列表
+     */
+    public List<String> listRowKeys(String tableName, String startRowKey, String stopRowKey) {
+        List<String> rowKeys = new ArrayList<>();
+        if (!listRowKeys(tableName, startRowKey, stopRowKey, ParallelScanMode.ORDERED, rowKeys::add)) {
+            return new ArrayList<>();
+        }
+        return rowKeys;
+    }
+
+    /**
+     * 按行键顺序列出以 prefix 开始的行键
+     * @param tableName 表名
+     * @param prefix 行键前缀
+     * @return java.util.List<java.lang.String> 查询失败时返回空列表
+     */
+    public List<String> listRowKeysByPrefix(String tableName, String prefix) {
+        List<String> rowKeys = new ArrayList<>();
+        if (!scanRowKeys(tableName, keyOnlyScan(prefixFilterScan(prefix)), ParallelScanMode.ORDERED, rowKeys::add)) {
+            return new ArrayList<>();
+        }
+        return rowKeys;
+    }
+
+    /**
+     * 根据 startRowKey 和 stopRowKey 按 region 并行遍历行键，不传输列值
+     * @param tableName 表名
+     * @param startRowKey 起始 rowKey，为空时不限制
+     * @param stopRowKey 结束 rowKey，为空时不限制
+     * @param mode 合并方式，UNORDERED 最快，ORDERED 按行键顺序回调
+     * @param callback 行键回调，在调用线程中执行，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean listRowKeys(String tableName, String startRowKey, String stopRowKey,
+                               ParallelScanMode mode, HbaseRowKeyCallback callback) {
+        return scanRowKeys(tableName, keyOnlyScan(rangeScan(startRowKey, stopRowKey)), mode, callback);
+    }
+
+    private long countRows(String tableName, Scan scan) {
+        long[] count = {0};
+        if (!scanRowKeys(tableName, scan, ParallelScanMode.UNORDERED, rowKey -> {
+            count[0]++;
+            return true;
+        })) {
+            return -1;
+        }
+        return count[0];
+    }
+
+    private boolean scanRowKeys(String tableName, Scan scan, ParallelScanMode mode, HbaseRowKeyCallback callback) {
+        HbaseMetrics.Call call = metrics.start("scan_keys", tableName);
+        if (salters.containsKey(tableName)) {
+            try {
+                return saltedScan(tableName, scan, mode, call, r -> callback.onRowKey(logicalKey(tableName, r.getRow())));
+            } finally {
+                call.stop();
+            }
+        }
+
+        try (RegionLocator locator = connection(tableName).getRegionLocator(TableName.valueOf(tableName))) {
+            List<Scan> subScans = ParallelScanner.splitByRegions(locator, scan);
+            newParallelScanner(tableName, subScans, r -> Bytes.toString(r.getRow()))
+                    .scan(mode, null, rowKey -> {
+                        call.rows(1);
+                        return callback.onRowKey(rowKey);
+                    });
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("并行遍历行键失败,tableName:{0}", tableName), e);
+            return false;
+        } finally {
+            call.stop();
+        }
+        return true;
+    }
+
+    /**
+     * 只返回行键的 Scan：每行只取第一个列，并去掉列值，使用 bulk-export profile
+     */
+    private Scan keyOnlyScan(Scan scan) {
+        scan.setFilter(new FilterList(new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+        return applyScanProfile(scan, HbaseProperties.ScanProfile.BULK_EXPORT);
+    }
+
+    /**
+     * 为表注册行键加盐策略，该表的 put、get、delete 自动加盐，scan 自动分桶并发执行并按逻辑行键归并
+     * @param tableName 表名
+     * @param salter 加盐策略，为 null 时取消加盐
+     */
+    public void registerRowKeySalter(String tableName, RowKeySalter salter) {
+        if (salter == null) {
+            salters.remove(tableName);
+        } else {
+            salters.put(tableName, salter);
+        }
+    }
+
+    /**
+     * @param tableName 表名
+     * @return boolean 表是否注册了加盐策略
+     */
+    boolean isSalted(String tableName) {
+        return salters.containsKey(tableName);
+    }
+
+    /**
+     * 获取加盐表的预分区 splitKeys，每个分桶一个 region，用于 createTableBySplitKeys
+     * @param tableName 表名
+     * @return byte[][] 表未加盐时返回 null
+     */
+    public byte[][] getSaltSplitKeys(String tableName) {
+        RowKeySalter salter = salters.get(tableName);
+        return salter == null ? null : salter.getSplitKeys();
+    }
+
+    /**
+     * 加盐表的 scan：逻辑起止行键加上每个分桶的前缀，各分桶并发执行
+     * @param tableName 表名
+     * @param scan 逻辑行键上的 scan
+     * @param mode ORDERED 时按逻辑行键 k 路归并
+     * @param call 指标，统计每行结果和失败
+     * @param consumer 回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    private boolean saltedScan(String tableName, Scan scan, ParallelScanMode mode, HbaseMetrics.Call call,
+                               Predicate<Result> consumer) {
+        RowKeySalter salter = salters.get(tableName);
+        // 每个分桶各自 limit，合并后在客户端截断；设置了 batch 时同一行会分多次返回
+        int limit = scan.getLimit();
+        int[] count = {0};
+        byte[][] lastRow = {null};
+        try {
+            List<Scan> subScans = ParallelScanner.splitByPrefixes(salter.getPrefixes(), scan);
+            newParallelScanner(tableName, subScans, Function.identity())
+                    .scan(mode, logicalRowComparator(salter), r -> {
+                        if (limit > 0 && !Bytes.equals(r.getRow(), lastRow[0])) {
+                            if (count[0] == limit) {
+                                return false;
+                            }
+                            count[0]++;
+                            lastRow[0] = r.getRow();
+                        }
+                        call.result(r);
+                        return consumer.test(r);
+                    });
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("分桶遍历查询数据失败,tableName:{0}", tableName), e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 忽略盐值前缀、按逻辑行键比较
+     */
+    private static Comparator<Result> logicalRowComparator(RowKeySalter salter) {
+        int prefixLength = salter.getPrefixLength();
+        return (a, b) -> Bytes.compareTo(a.getRow(), prefixLength, a.getRow().length - prefixLength,
+                b.getRow(), prefixLength, b.getRow().length - prefixLength);
+    }
+
+    /**
+     * 逻辑行键 -> 物理行键
+     * @param tableName 表名
+     * @param rowKey 逻辑行键
+     * @return java.lang.String
+     */
+    String saltedKey(String tableName, String rowKey) {
+        RowKeySalter salter = salters.get(tableName);
+        return salter == null ? rowKey : salter.salt(rowKey);
+    }
+
+    /**
+     * 写入使用的持久化级别：调用方指定的优先，其次是 hbase.durability 中该表的配置，都没有时使用表的默认级别
+     * @param tableName 表名
+     * @param durability 调用方指定的持久化级别，可以为 null
+     * @return org.apache.hadoop.hbase.client.Durability
+     */
+    Durability durabilityOf(String tableName, Durability durability) {
+        if (durability != null) {
+            return durability;
+        }
+        Durability configured = properties.getDurability().get(tableName);
+        return configured == null ? Durability.USE_DEFAULT : configured;
+    }
+
+    /**
+     * 记录按持久化级别统计的写入行数，供 AsyncHbaseUtil 与同步写入计入同一组指标
+     * @param operation 操作
+     * @param tableName 表名
+     * @param durability 持久化级别
+     * @param rows 写入行数
+     */
+    void recordWrite(String operation, String tableName, Durability durability, long rows) {
+        metrics.recordWrite(operation, tableName, durability, rows);
+    }
+
+    /**
+     * 物理行键 -> 逻辑行键
+     * @param tableName 表名
+     * @param row 物理行键
+     * @return java.lang.String
+     */
+    String logicalKey(String tableName, byte[] row) {
+        RowKeySalter salter = salters.get(tableName);
+        return salter == null ? Bytes.toString(row) : salter.unsalt(row);
+    }
+
+    private <T> ParallelScanner<T> newParallelScanner(String tableName, List<Scan> subScans, Function<Result, T> converter)
+            throws IOException {
+        HbaseProperties.ParallelScan config = properties.getParallelScan();
+        ExecutorService executor = getScanExecutor();
+        return new ParallelScanner<>(connection(tableName), TableName.valueOf(tableName), subScans, executor,
+                scanSlots, Math.max(1, config.getThreads()), config.getQueueSize(), converter);
+    }
+
+    /**
+     * 获取并行 scan 线程池，线程空闲 60 秒后回收
+     * @return java.util.concurrent.ExecutorService
+     */
+    private ExecutorService getScanExecutor() {
+        if (scanExecutor == null) {
+            synchronized (this) {
+                if (scanExecutor == null) {
+                    int threads = Math.max(1, properties.getParallelScan().getThreads());
+                    AtomicInteger index = new AtomicInteger();
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, "hbase-parallel-scan-" + index.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor.allowCoreThreadTimeOut(true);
+                    scanSlots = new Semaphore(threads);
+                    scanExecutor = executor;
+                }
+            }
+        }
+        return scanExecutor;
+    }
+
+    /**
+     * 注册表的列类型定义，供 scanTyped、getTypedRow 解码
+     * @param tableName 表名
+     * @param schema 列类型定义
+     */
+    public void registerRowSchema(String tableName, HbaseRowSchema schema) {
+        rowSchemas.put(tableName, schema);
+    }
+
+    /**
+     * 按已注册的 schema 流式遍历数据，数值列直接从 Cell 解码，不生成 String 和 Map；
+     * scan 未指定列时只查询 schema 中定义的列
+     * @param tableName 表名
+     * @param scan 过滤条件
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean scanTyped(String tableName, Scan scan, HbaseTypedRowCallback callback) {
+        HbaseRowSchema schema = getRowSchema(tableName);
+        if (!scan.hasFamilies()) {
+            schema.project(scan);
+        }
+
+        HbaseMetrics.Call call = metrics.start("scan", tableName);
+        RowKeySalter salter = salters.get(tableName);
+        if (salter != null) {
+            HbaseTypedRow row = new HbaseTypedRow(schema, salter.getPrefixLength());
+            try {
+                return saltedScan(tableName, scan, ParallelScanMode.ORDERED, call, r -> callback.onRow(row.reset(r)));
+            } finally {
+                call.stop();
+            }
+        }
+
+        HbaseTypedRow row = new HbaseTypedRow(schema);
+        ResultScanner rs = null;
+        // 获取表
+        Table table = null;
+        try {
+            table = getTable(tableName);
+            rs = table.getScanner(scan);
+            for (Result r : rs) {
+                if (r.isEmpty()) {
+                    continue;
+                }
+                call.result(r);
+                if (!callback.onRow(row.reset(r))) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("遍历查询指定表中的所有数据失败,tableName:{0}", tableName), e);
+            return false;
+        } finally {
+            call.stop();
+            close(null, rs, table);
+        }
+        return true;
+    }
+
+    /**
+     * 按已注册的 schema 查询一行数据
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @return com.example.util.HbaseTypedRow 行不存在或查询失败时返回 null
+     */
+    public HbaseTypedRow getTypedRow(String tableName, String rowKey) {
+        HbaseRowSchema schema = getRowSchema(tableName);
+        Get get = new Get(Bytes.toBytes(saltedKey(tableName, rowKey)));
+        for (HbaseRowSchema.Column column : schema.getColumns()) {
+            get.addColumn(column.getFamily(), column.getQualifier());
+        }
+
+        HbaseMetrics.Call call = metrics.start("get", tableName);
+        Table table = null;
+        try {
+            table = getTable(tableName);
+            Result tableResult = table.get(get);
+            call.result(tableResult);
+            if (tableResult != null && !tableResult.isEmpty()) {
+                RowKeySalter salter = salters.get(tableName);
+                return new HbaseTypedRow(schema, salter == null ? 0 : salter.getPrefixLength(), tableResult);
+            }
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("查询一行的数据失败,tableName:{0},rowKey:{1}"
+                    , tableName, rowKey), e);
+        } finally {
+            call.stop();
+            close(null, null, table);
+        }
+        return null;
+    }
+
+    private HbaseRowSchema getRowSchema(String tableName) {
+        HbaseRowSchema schema = rowSchemas.get(tableName);
+        if (schema == null) {
+            throw new IllegalStateException("表未注册 schema,tableName:" + tableName);
+        }
+        return schema;
+    }
+
+    /**
+     * 将一行结果转换为 HbaseRow
+     * @param r 一行结果
+     * @return com.example.model.HbaseRow
+     */
+    static HbaseRow toHbaseRow(Result r) {
+        return new HbaseRow(Bytes.toString(r.getRow()), toColumnMap(r));
+    }
+
+    /**
+     * 将一行结果转换为 HbaseRow，加盐的表还原为逻辑行键
+     * @param tableName 表名
+     * @param r 一行结果
+     * @return com.example.model.HbaseRow
+     */
+    private HbaseRow toHbaseRow(String tableName, Result r) {
+        return new HbaseRow(logicalKey(tableName, r.getRow()), toColumnMap(r));
+    }
+
+    /**
+     * 根据 tableName 和 rowKey 精确查询一行的数据，开启了副本读的表主副本慢时可能返回从副本上的旧数据
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @return java.util.Map<java.lang.String,java.lang.String> 返回一行的数据
+     */
+    public Map<String, String> getRowData(String tableName, String rowKey) {
+        // 返回的键值对
+        Map<String, String> result = new HashMap<>();
+
+        Get get = new Get(Bytes.toBytes(saltedKey(tableName, rowKey)));
+        HbaseMetrics.Call call = metrics.start("get", tableName);
+        // 获取表
+        Table table = null;
+        try {
+            table = getTable(tableName);
+            Result tableResult = getRow(table, tableName, rowKey, get);
+            call.result(tableResult);
+            if (tableResult != null && !tableResult.isEmpty()) {
                 for (Cell cell : tableResult.listCells()) {
                     System.out.println("family: " + Bytes.toString(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength()));
                     System.out.println("qualifier:" + Bytes.toString(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength()));
@@ -363,17 +1550,407 @@ public class HbaseUtil {
                 }
             }
         } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("查询一行的数据失败,tableName:{0},rowKey:{1}"
+                    , tableName, rowKey), e);
+        } finally {
+            call.stop();
+            close(null, null, table);
+        }
+
+        return result;
+    }
+
+    /**
+     * 查询整行数据，表开启了行缓存时优先读缓存，从副本返回的旧数据不缓存
+     * @param table Table
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param get 整行查询的 Get
+     * @return org.apache.hadoop.hbase.client.Result
+     * @throws IOException
+     */
+    private Result getRow(Table table, String tableName, String rowKey, Get get) throws IOException {
+        if (!rowCache.isEnabled(tableName)) {
+            return readRow(table, tableName, get);
+        }
+        Result result = rowCache.get(tableName, rowKey);
+        if (result == null) {
+            // 先取版本号再读，读取期间该行被写入时不缓存读到的旧值
+            long version = rowCache.version(tableName, rowKey);
+            result = readRow(table, tableName, get);
+            if (!result.isStale()) {
+                rowCache.put(tableName, rowKey, result, version);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 读取一行，开启了副本读的表走对冲读，对冲的每个请求单独获取 Table
+     * @param table Table
+     * @param tableName 表名
+     * @param get Get
+     * @return org.apache.hadoop.hbase.client.Result
+     * @throws IOException
+     */
+    private Result readRow(Table table, String tableName, Get get) throws IOException {
+        if (!hedgedReader.isEnabled(tableName)) {
+            return table.get(get);
+        }
+        return hedgedReader.get(tableName, get, hedged -> {
+            try (Table hedgedTable = getTable(tableName)) {
+                return hedgedTable.get(hedged);
+            }
+        });
+    }
+
+    /**
+     * 查询一行的数据并返回是否来自从副本，开启了副本读的表主副本慢时读从副本，其余表只读主副本
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @return com.example.model.HbaseTimelineRow 行不存在时 columns 为空，查询失败时返回 null
+     */
+    public HbaseTimelineRow getRowTimeline(String tableName, String rowKey) {
+        Get get = new Get(Bytes.toBytes(saltedKey(tableName, rowKey)));
+        HbaseMetrics.Call call = metrics.start("get", tableName);
+        Table table = null;
+        try {
+            table = getTable(tableName);
+            Result result = getRow(table, tableName, rowKey, get);
+            call.result(result);
+            Map<String, String> columns = result.isEmpty() ? new HashMap<>() : toColumnMap(result);
+            return new HbaseTimelineRow(rowKey, columns, result.isStale());
+        } catch (IOException e) {
+            call.fail(e);
             log.error(MessageFormat.format("查询一行的数据失败,tableName:{0},rowKey:{1}"
                     , tableName, rowKey), e);
         } finally {
+            call.stop();
+            close(null, null, table);
+        }
+        return null;
+    }
+
+    /**
+     * 行缓存的命中、未命中、淘汰统计
+     * @return com.github.benmanes.caffeine.cache.stats.CacheStats
+     */
+    public CacheStats getRowCacheStats() {
+        return rowCache.stats();
+    }
+
+    /**
+     * 根据 tableName 和多个 rowKey 批量查询多行数据，一次 Table.get(List) 请求，
+     * 客户端内部按 RegionServer 分组并发发送
+     * @param tableName 表名
+     * @param rowKeys 行键集合
+     * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>> 按 rowKeys 顺序返回，不存在的行不返回
+     */
+    public Map<String, Map<String, String>> getRows(String tableName, Collection<String> rowKeys) {
+        return getRows(tableName, rowKeys, (String) null);
+    }
+
+    /**
+     * 根据 tableName 和多个 rowKey 批量查询多行数据，只返回指定列族（及指定列）的数据
+     * @param tableName 表名
+     * @param rowKeys 行键集合
+     * @param familyName 列族名，为空时查询整行
+     * @param columns 列名，为空时查询整个列族
+     * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>> 按 rowKeys 顺序返回，不存在的行不返回
+     */
+    public Map<String, Map<String, String>> getRows(String tableName, Collection<String> rowKeys, String familyName, String... columns) {
+        Map<String, Map<String, String>> result = new LinkedHashMap<>();
+        getRows(tableName, rowKeys, familyName, columns, row -> {
+            result.put(row.getRowKey(), row.getColumns());
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * 根据 tableName 和多个 rowKey 批量查询多行数据，逐行回调，查询失败时返回 false，调用方可以区分失败和行不存在
+     * @param tableName 表名
+     * @param rowKeys 行键集合
+     * @param callback 行回调，按 rowKeys 顺序回调，不存在的行不回调，返回 false 时不再回调后续的行
+     * @return boolean 是否查询成功
+     */
+    public boolean getRows(String tableName, Collection<String> rowKeys, HbaseRowCallback callback) {
+        return getRows(tableName, rowKeys, null, null, callback);
+    }
+
+    private boolean getRows(String tableName, Collection<String> rowKeys, String familyName, String[] columns,
+                            HbaseRowCallback callback) {
+        if (rowKeys == null || rowKeys.isEmpty()) {
+            return true;
+        }
+
+        List<Get> gets = new ArrayList<>(rowKeys.size());
+        for (String rowKey : rowKeys) {
+            gets.add(buildGet(saltedKey(tableName, rowKey), familyName, columns));
+        }
+        metrics.recordBatchSize("multi_get", tableName, gets.size());
+        HbaseMetrics.Call call = metrics.start("multi_get", tableName);
+        Result[] tableResults;
+        // 获取表
+        Table table = null;
+        try {
+            table = getTable(tableName);
+            tableResults = table.get(gets);
+            for (Result tableResult : tableResults) {
+                call.result(tableResult);
+            }
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("批量查询多行数据失败,tableName:{0},rowKeys:{1}"
+                    , tableName, rowKeys.size()), e);
+            return false;
+        } finally {
+            call.stop();
             close(null, null, table);
         }
 
+        for (Result tableResult : tableResults) {
+            if (tableResult != null && !tableResult.isEmpty() && !callback.onRow(toHbaseRow(tableName, tableResult))) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 为表的一列注册二级索引，索引表不存在时创建；之后 putData、setColumnValue、putRows、deleteColumn、deleteRow
+     * 自动维护索引，注册前已有的数据不会补建索引。同一张表按列名区分索引，不同列族的同名列只能索引一个
+     * @param tableName 表名
+     * @param familyName 列族名
+     * @param columnName 列名
+     * @return boolean 是否注册成功
+     */
+    public boolean registerIndex(String tableName, String familyName, String columnName) {
+        HbaseIndex index = new HbaseIndex(tableName, familyName, columnName);
+        if (!createTable(index.getIndexTableName(), Collections.singletonList(HbaseIndex.INDEX_FAMILY))) {
+            return false;
+        }
+        indexes.computeIfAbsent(tableName, k -> new ConcurrentHashMap<>()).put(columnName, index);
+        return true;
+    }
+
+    /**
+     * 通过二级索引按列值查询：在索引表中按列值前缀 scan 得到行键，再批量读取数据行，
+     * 并校验数据行当前的列值，过滤写入中途失败或 putRows 覆盖留下的旧索引项
+     * @param tableName 表名
+     * @param columnName 已注册索引的列名
+     * @param value 列值
+     * @return java.util.Map<java.lang.String,java.util.Map<java.lang.String,java.lang.String>> <行键, <列名, 列值>>，按行键排序
+     */
+    public Map<String, Map<String, String>> findByIndex(String tableName, String columnName, String value) {
+        Map<String, HbaseIndex> tableIndexes = indexes.get(tableName);
+        HbaseIndex index = tableIndexes == null ? null : tableIndexes.get(columnName);
+        if (index == null) {
+            throw new IllegalStateException("列未注册索引,tableName:" + tableName + ",columnName:" + columnName);
+        }
+
+        byte[] prefix = index.valuePrefix(value);
+        Scan scan = new Scan().withStartRow(prefix).withStopRow(ParallelScanner.prefixStopRow(prefix));
+        List<String> rowKeys = new ArrayList<>();
+        HbaseMetrics.Call call = metrics.start("index_scan", tableName);
+        ResultScanner rs = null;
+        Table table = null;
+        try {
+            table = getTable(index.getIndexTableName());
+            rs = table.getScanner(defaultProfile(scan));
+            for (Result r : rs) {
+                call.result(r);
+                rowKeys.add(index.rowKey(r.getRow(), prefix.length));
+            }
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("查询索引失败,tableName:{0},columnName:{1},value:{2}"
+                    , tableName, columnName, value), e);
+            return new LinkedHashMap<>();
+        } finally {
+            call.stop();
+            close(null, rs, table);
+        }
+
+        Map<String, Map<String, String>> result = getRows(tableName, rowKeys);
+        result.values().removeIf(columns -> !value.equals(columns.get(columnName)));
+        return result;
+    }
+
+    /**
+     * 表的所有索引
+     */
+    private Collection<HbaseIndex> indexesOf(String tableName) {
+        Map<String, HbaseIndex> tableIndexes = indexes.get(tableName);
+        return tableIndexes == null ? Collections.emptyList() : tableIndexes.values();
+    }
+
+    /**
+     * 写入的列中有索引的列
+     */
+    private List<HbaseIndex> indexesOf(String tableName, String familyName, String... columns) {
+        Map<String, HbaseIndex> tableIndexes = indexes.get(tableName);
+        if (tableIndexes == null || columns == null) {
+            return Collections.emptyList();
+        }
+        List<HbaseIndex> result = new ArrayList<>();
+        for (String column : columns) {
+            HbaseIndex index = tableIndexes.get(column);
+            if (index != null && index.getFamilyName().equals(familyName)) {
+                result.add(index);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 写入的列中有索引的列及新值
+     */
+    private Map<HbaseIndex, String> indexedValues(String tableName, String familyName, String[] columns, String[] values) {
+        Map<HbaseIndex, String> result = new HashMap<>();
+        if (columns == null || values == null || columns.length != values.length || !indexes.containsKey(tableName)) {
+            return result;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (values[i] != null) {
+                for (HbaseIndex index : indexesOf(tableName, familyName, columns[i])) {
+                    result.put(index, values[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<HbaseIndex, String> indexedValues(String tableName, String familyName, Map<String, String> columns) {
+        Map<HbaseIndex, String> result = new HashMap<>();
+        if (columns == null || !indexes.containsKey(tableName)) {
+            return result;
+        }
+        columns.forEach((column, value) -> {
+            if (value != null) {
+                for (HbaseIndex index : indexesOf(tableName, familyName, column)) {
+                    result.put(index, value);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 读取一行中索引列的当前值
+     * @param table 数据表
+     * @param tableName 表名
+     * @param rowKey 逻辑行键
+     * @param rowIndexes 需要读取的索引
+     * @return java.util.Map<com.example.util.HbaseIndex,org.apache.hadoop.hbase.Cell> <索引, 当前的 Cell>，列不存在时不包含
+     * @throws IOException
+     */
+    private Map<HbaseIndex, Cell> readIndexedValues(Table table, String tableName, String rowKey,
+                                                    Collection<HbaseIndex> rowIndexes) throws IOException {
+        Map<HbaseIndex, Cell> result = new HashMap<>();
+        if (rowIndexes.isEmpty()) {
+            return result;
+        }
+        Get get = new Get(Bytes.toBytes(saltedKey(tableName, rowKey)));
+        for (HbaseIndex index : rowIndexes) {
+            get.addColumn(Bytes.toBytes(index.getFamilyName()), Bytes.toBytes(index.getColumnName()));
+        }
+        Result r = table.get(get);
+        for (HbaseIndex index : rowIndexes) {
+            Cell cell = r.getColumnLatestCell(Bytes.toBytes(index.getFamilyName()), Bytes.toBytes(index.getColumnName()));
+            if (cell != null) {
+                result.put(index, cell);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 值已变化的旧索引项
+     */
+    private static Map<HbaseIndex, Cell> staleIndexValues(Map<HbaseIndex, Cell> oldValues, Map<HbaseIndex, String> newValues) {
+        Map<HbaseIndex, Cell> result = new HashMap<>(oldValues);
+        result.entrySet().removeIf(entry -> cellValue(entry.getValue()).equals(newValues.get(entry.getKey())));
         return result;
     }
 
+    private static String cellValue(Cell cell) {
+        return Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+
+    /**
+     * 写入一行的索引项
+     * @param rowKey 逻辑行键
+     * @param values <索引, 列值>
+     * @param timestamp 数据列的时间戳
+     * @throws IOException
+     */
+    private void putIndexes(String rowKey, Map<HbaseIndex, String> values, long timestamp) throws IOException {
+        for (Map.Entry<HbaseIndex, String> entry : values.entrySet()) {
+            HbaseIndex index = entry.getKey();
+            try (Table indexTable = getTable(index.getIndexTableName())) {
+                indexTable.put(index.indexPut(entry.getValue(), rowKey, timestamp)
+                        .setDurability(durabilityOf(index.getIndexTableName(), null)));
+            }
+        }
+    }
+
+    /**
+     * 删除一行的旧索引项，只删除与旧数据列时间戳相同的版本，
+     * 读取旧值之后其他线程以更大的时间戳写回同一个值时，它写入的索引项保留
+     * @param rowKey 逻辑行键
+     * @param oldCells <索引, 读取到的旧数据列>
+     * @throws IOException
+     */
+    private void deleteIndexes(String rowKey, Map<HbaseIndex, Cell> oldCells) throws IOException {
+        for (Map.Entry<HbaseIndex, Cell> entry : oldCells.entrySet()) {
+            HbaseIndex index = entry.getKey();
+            Cell cell = entry.getValue();
+            try (Table indexTable = getTable(index.getIndexTableName())) {
+                indexTable.delete(index.indexDelete(cellValue(cell), rowKey, cell.getTimestamp())
+                        .setDurability(durabilityOf(index.getIndexTableName(), null)));
+            }
+        }
+    }
+
     /**
-     * 根据 tableName 、rowKey、familyName、column 查询指定单元格的数据
+     * 构造 Get，可选列族、列投影
+     * @param rowKey 行键
+     * @param familyName 列族名，为空时查询整行
+     * @param columns 列名，为空时查询整个列族
+     * @return Get
+     */
+    static Get buildGet(String rowKey, String familyName, String... columns) {
+        Get get = new Get(Bytes.toBytes(rowKey));
+        if (StringUtils.isNotBlank(familyName)) {
+            byte[] family = Bytes.toBytes(familyName);
+            if (columns == null || columns.length == 0) {
+                get.addFamily(family);
+            } else {
+                for (String column : columns) {
+                    get.addColumn(family, Bytes.toBytes(column));
+                }
+            }
+        }
+        return get;
+    }
+
+    /**
+     * 将一行结果转换为 <列名, 列值>
+     * @param r 一行结果
+     * @return java.util.Map<java.lang.String,java.lang.String>
+     */
+    static Map<String, String> toColumnMap(Result r) {
+        Map<String, String> columnMap = new HashMap<>();
+        for (Cell cell : r.listCells()) {
+            columnMap.put(Bytes.toString(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength()), Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+        }
+        return columnMap;
+    }
+
+    /**
+     * 根据 tableName 、rowKey、familyName、column 查询指定单元格的数据，开启了副本读的表主副本慢时可能返回从副本上的旧数据
      * @param tableName 表名
      * @param rowKey 行键
      * @param familyName 列族名
@@ -382,12 +1959,14 @@ public class HbaseUtil {
      */
     public String getColumnValue(String tableName, String rowKey, String familyName, String columnName) {
         String result = null;
-        Get get = new Get(Bytes.toBytes(rowKey));
+        Get get = new Get(Bytes.toBytes(saltedKey(tableName, rowKey)));
+        HbaseMetrics.Call call = metrics.start("get", tableName);
         // 获取表
         Table table = null;
         try {
             table = getTable(tableName);
-            Result tableResult = table.get(get);
+            Result tableResult = getRow(table, tableName, rowKey, get);
+            call.result(tableResult);
             if (tableResult != null && !tableResult.isEmpty()) {
                 Cell cell = tableResult.getColumnLatestCell(Bytes.toBytes(familyName), Bytes.toBytes(columnName));
                 if (cell != null) {
@@ -395,47 +1974,173 @@ public class HbaseUtil {
                 }
             }
         } catch (IOException e) {
+            call.fail(e);
             log.error(MessageFormat.format("查询指定单元格的数据失败,tableName:{0},rowKey:{1},familyName:{2},columnName:{3}"
                     , tableName, rowKey, familyName, columnName), e);
         } finally {
+            call.stop();
             close(null, null, table);
         }
         return  result;
     }
 
     /**
-     * 根据 tableName、rowKey、familyName、column 查询指定单元格多个版本的数据
+     * 根据 tableName、rowKey、familyName、column 查询指定单元格多个版本的数据
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyName 列族名
+     * @param columnName 列名
+     * @param versions 需要查询的版本数
+     * @return java.util.List<java.lang.String>
+     */
+    public List<String> getColumnValuesByVersion(String tableName, String rowKey, String familyName, String columnName, int versions) {
+        List<String> result = new ArrayList<>(versions);
+        HbaseMetrics.Call call = metrics.start("get", tableName);
+        // 获取表
+        Table table = null;
+        try {
+            table = getTable(tableName);
+            Get get = new Get(Bytes.toBytes(saltedKey(tableName, rowKey)));
+            get.addColumn(Bytes.toBytes(familyName), Bytes.toBytes(columnName));
+            // 读取多少个版本
+            get.readVersions(versions);
+            Result tableResult = table.get(get);
+            call.result(tableResult);
+            if (tableResult != null && !tableResult.isEmpty()) {
+                for (Cell cell : tableResult.listCells()) {
+                    result.add(Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+                }
+            }
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("查询指定单元格多个版本的数据失败,tableName:{0},rowKey:{1},familyName:{2},columnName:{3}"
+                    , tableName, rowKey, familyName, columnName), e);
+        } finally {
+            call.stop();
+            close(null, null, table);
+        }
+
+        return result;
+    }
+
+    /**
+     * 一次 multi-get 批量读取多行、多列的多个版本，替代逐行调用 getColumnValuesByVersion
+     * @param tableName 表名
+     * @param rowKeys 行键
+     * @param familyName 列族名，为空时查询整行
+     * @param columns 列名，为空时查询整个列族
+     * @param versions 每列最多返回的版本数
+     * @return java.util.Map<java.lang.String,com.example.util.HbaseRowVersions> <行键, 各列的多个版本>，不存在的行不包含
+     */
+    public Map<String, HbaseRowVersions> getRowsVersions(String tableName, Collection<String> rowKeys, String familyName,
+                                                         String[] columns, int versions) {
+        return getRowsVersions(tableName, rowKeys, familyName, columns, versions, 0, HConstants.LATEST_TIMESTAMP);
+    }
+
+    /**
+     * 一次 multi-get 批量读取多行、多列在时间戳范围内的多个版本
+     * @param tableName 表名
+     * @param rowKeys 行键
+     * @param familyName 列族名，为空时查询整行
+     * @param columns 列名，为空时查询整个列族
+     * @param versions 每列最多返回的版本数
+     * @param minStamp 最小时间戳（包含）
+     * @param maxStamp 最大时间戳（不包含），maxStamp = minStamp + 1 只查询指定时间戳的版本
+     * @return java.util.Map<java.lang.String,com.example.util.HbaseRowVersions> <行键, 各列的多个版本>，不存在的行不包含
+     */
+    public Map<String, HbaseRowVersions> getRowsVersions(String tableName, Collection<String> rowKeys, String familyName,
+                                                         String[] columns, int versions, long minStamp, long maxStamp) {
+        Map<String, HbaseRowVersions> result = new LinkedHashMap<>();
+        if (rowKeys == null || rowKeys.isEmpty()) {
+            return result;
+        }
+
+        HbaseMetrics.Call call = metrics.start("multi_get", tableName);
+        // 获取表
+        Table table = null;
+        try {
+            List<Get> gets = new ArrayList<>(rowKeys.size());
+            for (String rowKey : rowKeys) {
+                gets.add(buildGet(saltedKey(tableName, rowKey), familyName, columns).readVersions(versions)
+                        .setTimeRange(minStamp, maxStamp));
+            }
+            metrics.recordBatchSize("multi_get", tableName, gets.size());
+            table = getTable(tableName);
+            Result[] tableResults = table.get(gets);
+            for (Result tableResult : tableResults) {
+                call.result(tableResult);
+                if (tableResult != null && !tableResult.isEmpty()) {
+                    String rowKey = logicalKey(tableName, tableResult.getRow());
+                    result.put(rowKey, new HbaseRowVersions(rowKey, tableResult));
+                }
+            }
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("批量查询多行多版本数据失败,tableName:{0},rowKeys:{1}"
+                    , tableName, rowKeys.size()), e);
+        } finally {
+            call.stop();
+            close(null, null, table);
+        }
+
+        return result;
+    }
+
+    /**
+     * 流式遍历多版本数据，每行回调一次，使用 scan 自身的时间戳范围；scan 不能设置 batch，否则一行会被拆成多次回调
+     * @param tableName 表名
+     * @param scan 过滤条件
+     * @param versions 每列最多返回的版本数
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
+     */
+    public boolean scanVersions(String tableName, Scan scan, int versions, HbaseRowVersionsCallback callback) {
+        return scanVersions(tableName, scan, versions, scan.getTimeRange().getMin(), scan.getTimeRange().getMax(), callback);
+    }
+
+    /**
+     * 按时间范围流式遍历多版本数据，适合导出一段时间内的历史
      * @param tableName 表名
-     * @param rowKey 行键
-     * @param familyName 列族名
-     * @param columnName 列名
-     * @param versions 需要查询的版本数
-     * @return java.util.List<java.lang.String>
+     * @param scan 过滤条件，时间戳范围会被覆盖
+     * @param versions 每列最多返回的版本数
+     * @param minStamp 最小时间戳（包含）
+     * @param maxStamp 最大时间戳（不包含）
+     * @param callback 行回调，返回 false 时提前结束遍历
+     * @return boolean 是否遍历成功
      */
-    public List<String> getColumnValuesByVersion(String tableName, String rowKey, String familyName, String columnName, int versions) {
-        List<String> result = new ArrayList<>(versions);
+    public boolean scanVersions(String tableName, Scan scan, int versions, long minStamp, long maxStamp,
+                                HbaseRowVersionsCallback callback) {
+        HbaseMetrics.Call call = metrics.start("scan", tableName);
+        ResultScanner rs = null;
         // 获取表
         Table table = null;
         try {
+            scan.readVersions(versions).setTimeRange(minStamp, maxStamp);
+            if (salters.containsKey(tableName)) {
+                return saltedScan(tableName, scan, ParallelScanMode.ORDERED, call,
+                        r -> callback.onRow(new HbaseRowVersions(logicalKey(tableName, r.getRow()), r)));
+            }
+
             table = getTable(tableName);
-            Get get = new Get(Bytes.toBytes(rowKey));
-            get.addColumn(Bytes.toBytes(familyName), Bytes.toBytes(columnName));
-            // 读取多少个版本
-            get.readVersions(versions);
-            Result tableResult = table.get(get);
-            if (tableResult != null && !tableResult.isEmpty()) {
-                for (Cell cell : tableResult.listCells()) {
-                    result.add(Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+            rs = table.getScanner(scan);
+            for (Result r : rs) {
+                if (r.isEmpty()) {
+                    continue;
+                }
+                call.result(r);
+                if (!callback.onRow(new HbaseRowVersions(logicalKey(tableName, r.getRow()), r))) {
+                    break;
                 }
             }
         } catch (IOException e) {
-            log.error(MessageFormat.format("查询指定单元格多个版本的数据失败,tableName:{0},rowKey:{1},familyName:{2},columnName:{3}"
-                    , tableName, rowKey, familyName, columnName), e);
+            call.fail(e);
+            log.error(MessageFormat.format("遍历查询多版本数据失败,tableName:{0}", tableName), e);
+            return false;
         } finally {
-            close(null, null, table);
+            call.stop();
+            close(null, rs, table);
         }
-
-        return result;
+        return true;
     }
 
     /**
@@ -447,15 +2152,47 @@ public class HbaseUtil {
      * @param values 列值的数据
      */
     public void putData(String tableName, String rowKey, String familyName, String[] columns, String[] values) {
+        putData(tableName, rowKey, familyName, columns, values, null);
+    }
+
+    /**
+     * 为表添加 or 更新数据，指定持久化级别
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyName 列族名
+     * @param columns 列名数组
+     * @param values 列值的数据
+     * @param durability 持久化级别，为 null 时使用 hbase.durability 中该表的配置
+     */
+    public void putData(String tableName, String rowKey, String familyName, String[] columns, String[] values,
+                        Durability durability) {
+        durability = durabilityOf(tableName, durability);
+        HbaseMetrics.Call call = metrics.start("put", tableName);
         // 获取表
         Table table = null;
         try {
             table = getTable(tableName);
-            putData(table, rowKey, tableName, familyName, columns, values);
+            Map<HbaseIndex, String> indexValues = indexedValues(tableName, familyName, columns, values);
+            // 有索引时数据列和索引项使用同一个时间戳，否则由 RegionServer 分配
+            long timestamp = indexValues.isEmpty() ? HConstants.LATEST_TIMESTAMP : System.currentTimeMillis();
+            Map<HbaseIndex, Cell> oldIndexValues = readIndexedValues(table, tableName, rowKey, indexValues.keySet());
+            putIndexes(rowKey, indexValues, timestamp);
+            IOException failure = putData(table, saltedKey(tableName, rowKey), tableName, familyName, columns, values,
+                    durability, timestamp);
+            if (failure == null) {
+                call.rows(1);
+                metrics.recordWrite("put", tableName, durability, 1);
+                deleteIndexes(rowKey, staleIndexValues(oldIndexValues, indexValues));
+            } else {
+                call.fail(failure);
+            }
+            rowCache.invalidate(tableName, rowKey);
         } catch (IOException e) {
+            call.fail(e);
             log.error(MessageFormat.format("为表添加 or 更新数据失败,tableName:{0},rowKey:{1},familyName:{2}"
                     , tableName, rowKey, familyName), e);
         } finally {
+            call.stop();
             close(null, null, table);
         }
     }
@@ -468,29 +2205,62 @@ public class HbaseUtil {
      * @param familyName 列族名
      * @param columns 列名数组
      * @param values 列值的数据
+     * @param durability 持久化级别
+     * @param timestamp 数据列的时间戳
+     * @return java.io.IOException 写入失败的原因，成功时返回 null
      */
-    private void putData(Table table, String rowKey, String tableName, String familyName, String[] columns, String[] values) {
+    private IOException putData(Table table, String rowKey, String tableName, String familyName, String[] columns, String[] values,
+                                Durability durability, long timestamp) {
         try {
-            // 设置 rowKey
-            Put put = new Put(Bytes.toBytes(rowKey));
-
-            if (columns != null && values != null && columns.length == values.length) {
-                for (int i = 0; i < columns.length; i++) {
-                    if (columns[i] != null && values[i] != null) {
-                        put.addColumn(Bytes.toBytes(familyName), Bytes.toBytes(columns[i]), Bytes.toBytes(values[i]));
-                    } else {
-                        throw new NullPointerException(MessageFormat.format("列名和列数据都不能为空,column:{0},value:{1}"
-                                ,columns[i],values[i]));
-                    }
-                }
-            }
+            Put put = buildPut(rowKey, timestamp, familyName, columns, values);
+            put.setDurability(durability);
             table.put(put);
             log.debug("putData add or update data Success,rowKey:" + rowKey);
             table.close();
         } catch (IOException e) {
             log.error(MessageFormat.format("为表添加 or 更新数据失败,tableName:{0},rowKey:{1},familyName:{2}"
                     , tableName, rowKey, familyName), e);
+            return e;
+        }
+        return null;
+    }
+
+    /**
+     * 构造 Put
+     * @param rowKey 行键
+     * @param familyName 列族名
+     * @param columns 列名数组
+     * @param values 列值的数据
+     * @return Put
+     */
+    static Put buildPut(String rowKey, String familyName, String[] columns, String[] values) {
+        return buildPut(rowKey, HConstants.LATEST_TIMESTAMP, familyName, columns, values);
+    }
+
+    /**
+     * 构造 Put，所有列使用指定的时间戳
+     * @param rowKey 行键
+     * @param timestamp 时间戳，HConstants.LATEST_TIMESTAMP 表示由 RegionServer 分配
+     * @param familyName 列族名
+     * @param columns 列名数组
+     * @param values 列值的数据
+     * @return Put
+     */
+    static Put buildPut(String rowKey, long timestamp, String familyName, String[] columns, String[] values) {
+        // 设置 rowKey
+        Put put = new Put(Bytes.toBytes(rowKey), timestamp);
+
+        if (columns != null && values != null && columns.length == values.length) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i] != null && values[i] != null) {
+                    put.addColumn(Bytes.toBytes(familyName), Bytes.toBytes(columns[i]), Bytes.toBytes(values[i]));
+                } else {
+                    throw new NullPointerException(MessageFormat.format("列名和列数据都不能为空,column:{0},value:{1}"
+                            ,columns[i],values[i]));
+                }
+            }
         }
+        return put;
     }
 
     /**
@@ -502,24 +2272,478 @@ public class HbaseUtil {
      * @param value 列值
      */
     public void setColumnValue(String tableName, String rowKey, String familyName, String column, String value) {
+        setColumnValue(tableName, rowKey, familyName, column, value, null);
+    }
+
+    /**
+     * 为某个单元格赋值，指定持久化级别
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyName 列族名
+     * @param column 列名
+     * @param value 列值
+     * @param durability 持久化级别，为 null 时使用 hbase.durability 中该表的配置
+     */
+    public void setColumnValue(String tableName, String rowKey, String familyName, String column, String value,
+                               Durability durability) {
+        durability = durabilityOf(tableName, durability);
+        HbaseMetrics.Call call = metrics.start("put", tableName);
         Table table = null;
         try {
             // 获取表
             table = getTable(tableName);
-            // 设置 rowKey
-            Put put = new Put(Bytes.toBytes(rowKey));
-            put.addColumn(Bytes.toBytes(familyName), Bytes.toBytes(column), Bytes.toBytes(value));
-
+            Map<HbaseIndex, String> indexValues = indexedValues(tableName, familyName, new String[]{column}, new String[]{value});
+            // 设置 rowKey，有索引时数据列和索引项使用同一个时间戳，否则由 RegionServer 分配
+            long timestamp = indexValues.isEmpty() ? HConstants.LATEST_TIMESTAMP : System.currentTimeMillis();
+            Put put = new Put(Bytes.toBytes(saltedKey(tableName, rowKey)));
+            put.addColumn(Bytes.toBytes(familyName), Bytes.toBytes(column), timestamp, Bytes.toBytes(value));
+            put.setDurability(durability);
+
+            Map<HbaseIndex, Cell> oldIndexValues = readIndexedValues(table, tableName, rowKey, indexValues.keySet());
+            putIndexes(rowKey, indexValues, timestamp);
             table.put(put);
+            call.rows(1);
+            metrics.recordWrite("put", tableName, durability, 1);
+            deleteIndexes(rowKey, staleIndexValues(oldIndexValues, indexValues));
+            rowCache.invalidate(tableName, rowKey);
             log.debug("add data Success!");
         } catch (IOException e) {
+            call.fail(e);
             log.error(MessageFormat.format("为表的某个单元格赋值失败,tableName:{0},rowKey:{1},familyName:{2},column:{3}"
                     , tableName, rowKey, familyName, column), e);
         } finally {
+            call.stop();
+            close(null, null, table);
+        }
+    }
+
+    /**
+     * 设置批量写失败回调
+     * @param listener 回调，为 null 时恢复为只打印日志
+     */
+    public void setWriteFailureListener(HbaseWriteFailureListener listener) {
+        if (listener == null) {
+            listener = (tableName, rowKey, cause) ->
+                    log.error(MessageFormat.format("批量写入失败,tableName:{0},rowKey:{1}", tableName, rowKey), cause);
+        }
+        this.writeFailureListener = listener;
+    }
+
+    /**
+     * 通过 BufferedMutator 批量添加 or 更新数据，数据先进入客户端写缓冲区，
+     * 缓冲区写满或到达定时刷写间隔时批量提交；写失败通过 {@link HbaseWriteFailureListener} 回调。
+     * 行缓存在提交到写缓冲区时失效，缓冲区刷写前的读取可能重新缓存旧值，直到过期
+     * @param tableName 表名
+     * @param familyName 列族名
+     * @param rows 行数据
+     * @return boolean 是否已全部提交到写缓冲区
+     */
+    public boolean putRows(String tableName, String familyName, Iterable<HbaseRow> rows) {
+        return putRows(tableName, familyName, rows, null);
+    }
+
+    /**
+     * 通过 BufferedMutator 批量添加 or 更新数据，指定持久化级别，
+     * 派生表等可以重建的数据用 ASYNC_WAL 或 SKIP_WAL 换取写吞吐
+     * @param tableName 表名
+     * @param familyName 列族名
+     * @param rows 行数据
+     * @param durability 持久化级别，为 null 时使用 hbase.durability 中该表的配置
+     * @return boolean 是否已全部提交到写缓冲区
+     */
+    public boolean putRows(String tableName, String familyName, Iterable<HbaseRow> rows, Durability durability) {
+        durability = durabilityOf(tableName, durability);
+        int batchSize = Math.max(1, properties.getWriter().getBatchSize());
+        List<Put> puts = new ArrayList<>(batchSize);
+        HbaseMetrics.Call call = metrics.start("put_batch", tableName);
+        try {
+            BufferedMutator mutator = getBufferedMutator(tableName);
+            for (HbaseRow row : rows) {
+                Map<HbaseIndex, String> indexValues = indexedValues(tableName, familyName, row.getColumns());
+                long timestamp = indexValues.isEmpty() ? HConstants.LATEST_TIMESTAMP : System.currentTimeMillis();
+                Put put = buildPut(saltedKey(tableName, row.getRowKey()), timestamp, familyName, row.getColumns());
+                put.setDurability(durability);
+                puts.add(put);
+                // 只写入新索引项，旧值的索引项在查询时回表校验过滤
+                for (Map.Entry<HbaseIndex, String> entry : indexValues.entrySet()) {
+                    String indexTableName = entry.getKey().getIndexTableName();
+                    getBufferedMutator(indexTableName).mutate(entry.getKey().indexPut(entry.getValue(), row.getRowKey(), timestamp)
+                            .setDurability(durabilityOf(indexTableName, null)));
+                }
+                rowCache.invalidate(tableName, row.getRowKey());
+                if (puts.size() >= batchSize) {
+                    mutator.mutate(puts);
+                    call.rows(puts.size());
+                    metrics.recordBatchSize("put_batch", tableName, puts.size());
+                    metrics.recordWrite("put_batch", tableName, durability, puts.size());
+                    puts = new ArrayList<>(batchSize);
+                }
+            }
+            if (!puts.isEmpty()) {
+                mutator.mutate(puts);
+                call.rows(puts.size());
+                metrics.recordBatchSize("put_batch", tableName, puts.size());
+                metrics.recordWrite("put_batch", tableName, durability, puts.size());
+            }
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("批量添加 or 更新数据失败,tableName:{0},familyName:{1}"
+                    , tableName, familyName), e);
+            return false;
+        } finally {
+            call.stop();
+        }
+        return true;
+    }
+
+    /**
+     * 将指定表写缓冲区中的数据立即提交
+     * @param tableName 表名
+     * @return boolean
+     */
+    public boolean flush(String tableName) {
+        boolean success = true;
+        // 同时刷写该表索引表的缓冲区
+        for (HbaseIndex index : indexesOf(tableName)) {
+            success &= flush(index.getIndexTableName());
+        }
+        Map<Connection, BufferedMutator> tableMutators = mutators.get(tableName);
+        if (tableMutators == null || tableMutators.isEmpty()) {
+            return success;
+        }
+        HbaseMetrics.Call call = metrics.start("flush", tableName);
+        try {
+            for (BufferedMutator mutator : tableMutators.values()) {
+                mutator.flush();
+            }
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("刷写缓冲区失败,tableName:{0}", tableName), e);
+            return false;
+        } finally {
+            call.stop();
+        }
+        return success;
+    }
+
+    /**
+     * 累加计数器，先在客户端合并同一单元格的增量，定时或缓冲区满时批量写入，
+     * 适合每分钟大量累加的统计行；计数器以 Bytes.toBytes(long) 的 8 字节格式存储，用 getCounter 读取。
+     * 刷写前进程退出会丢失缓冲区中的增量，需要精确值时先调用 flushIncrements
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyName 列族名
+     * @param columnName 列名
+     * @param delta 增量，可以为负数
+     */
+    public void increment(String tableName, String rowKey, String familyName, String columnName, long delta) {
+        ScheduledExecutorService flusher = getIncrementFlusher();
+        int pending = incrementBuffer.add(tableName, saltedKey(tableName, rowKey), familyName, columnName, delta);
+        if (pending >= properties.getIncrementBuffer().getMaxPendingCells() && incrementFlushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                incrementFlushRequested.set(false);
+                flushIncrements();
+            });
+        }
+    }
+
+    /**
+     * 将累加缓冲区中的增量立即写入，每行一个 Increment，分批提交；
+     * 重试耗尽仍失败的行回调批量写失败监听器，不再重试，避免服务端已生效而客户端超时导致重复累加
+     * @return boolean 是否全部写入成功
+     */
+    public boolean flushIncrements() {
+        boolean success = true;
+        for (Map.Entry<String, List<Increment>> entry : incrementBuffer.drain().entrySet()) {
+            success &= flushIncrements(entry.getKey(), entry.getValue());
+        }
+        return success;
+    }
+
+    private boolean flushIncrements(String tableName, List<Increment> increments) {
+        int batchSize = Math.max(1, properties.getIncrementBuffer().getBatchSize());
+        Durability durability = durabilityOf(tableName, null);
+        increments.forEach(increment -> increment.setDurability(durability));
+        HbaseMetrics.Call call = metrics.start("increment_batch", tableName);
+        boolean success = true;
+        int from = 0;
+        Table table = null;
+        try {
+            table = getTable(tableName);
+            for (; from < increments.size(); from += batchSize) {
+                List<Increment> batch = increments.subList(from, Math.min(increments.size(), from + batchSize));
+                Object[] results = new Object[batch.size()];
+                try {
+                    table.batch(batch, results);
+                } catch (RetriesExhaustedWithDetailsException e) {
+                    // 部分失败，失败的行在 results 中为异常
+                    call.fail(e);
+                }
+                call.rows(batch.size());
+                metrics.recordBatchSize("increment_batch", tableName, batch.size());
+                metrics.recordWrite("increment_batch", tableName, durability, batch.size());
+                for (int i = 0; i < results.length; i++) {
+                    String rowKey = logicalKey(tableName, batch.get(i).getRow());
+                    rowCache.invalidate(tableName, rowKey);
+                    if (results[i] == null || results[i] instanceof Throwable) {
+                        success = false;
+                        Throwable cause = results[i] == null ? null : (Throwable) results[i];
+                        metrics.recordError("increment_batch", tableName, cause);
+                        writeFailureListener.onFailure(tableName, rowKey, cause);
+                    }
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            call.fail(e);
+            log.error(MessageFormat.format("批量累加计数器失败,tableName:{0}", tableName), e);
+            // 未提交的行全部算作失败
+            for (int i = from; i < increments.size(); i++) {
+                writeFailureListener.onFailure(tableName, logicalKey(tableName, increments.get(i).getRow()), e);
+            }
+            return false;
+        } finally {
+            call.stop();
+            close(null, null, table);
+        }
+        return success;
+    }
+
+    /**
+     * 读取 increment 写入的计数器，不包含缓冲区中尚未刷写的增量
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyName 列族名
+     * @param columnName 列名
+     * @return java.lang.Long 单元格不存在时返回 0，查询失败时返回 null
+     */
+    public Long getCounter(String tableName, String rowKey, String familyName, String columnName) {
+        Get get = buildGet(saltedKey(tableName, rowKey), familyName, columnName);
+        HbaseMetrics.Call call = metrics.start("get", tableName);
+        Table table = null;
+        try {
+            table = getTable(tableName);
+            Result tableResult = table.get(get);
+            call.result(tableResult);
+            Cell cell = tableResult == null ? null
+                    : tableResult.getColumnLatestCell(Bytes.toBytes(familyName), Bytes.toBytes(columnName));
+            return cell == null ? 0L : Bytes.toLong(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("查询计数器失败,tableName:{0},rowKey:{1},familyName:{2},columnName:{3}"
+                    , tableName, rowKey, familyName, columnName), e);
+            return null;
+        } finally {
+            call.stop();
             close(null, null, table);
         }
     }
 
+    /**
+     * 获取累加缓冲区的刷写线程，按配置的间隔定时刷写
+     * @return java.util.concurrent.ScheduledExecutorService
+     */
+    private ScheduledExecutorService getIncrementFlusher() {
+        if (incrementFlusher == null) {
+            synchronized (this) {
+                if (incrementFlusher == null) {
+                    ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "hbase-increment-flusher");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    long interval = properties.getIncrementBuffer().getFlushInterval();
+                    if (interval > 0) {
+                        flusher.scheduleWithFixedDelay(() -> {
+                            try {
+                                flushIncrements();
+                            } catch (RuntimeException e) {
+                                log.error("定时刷写累加缓冲区失败", e);
+                            }
+                        }, interval, interval, TimeUnit.MILLISECONDS);
+                    }
+                    incrementFlusher = flusher;
+                }
+            }
+        }
+        return incrementFlusher;
+    }
+
+    /**
+     * 使用配置的暂存目录批量导入数据，见 {@link #bulkLoad(String, String, Iterable, String)}
+     * @param tableName 表名
+     * @param familyName 列族名
+     * @param rows 行数据
+     * @return boolean 是否导入成功
+     */
+    public boolean bulkLoad(String tableName, String familyName, Iterable<HbaseRow> rows) {
+        return bulkLoad(tableName, familyName, rows, properties.getBulkLoad().getStagingDir());
+    }
+
+    /**
+     * 通过 HFile 批量导入数据，不经过 WAL 和 MemStore：按表当前的 region 边界排序写出 HFile，
+     * 再由 bulk load 将文件整体移入对应 region，适合初次导入、数据迁移等大批量写入；
+     * 导入成功后删除暂存文件，失败时保留以便排查或重试
+     * @param tableName 表名，必须已存在，建议先预分区
+     * @param familyName 列族名，HFile 使用该列族的压缩、编码和布隆过滤器配置
+     * @param rows 行数据，无需有序
+     * @param stagingDir 暂存目录，RegionServer 必须能访问，本地路径只适用于单机版 HBase
+     * @return boolean 是否导入成功
+     */
+    public boolean bulkLoad(String tableName, String familyName, Iterable<HbaseRow> rows, String stagingDir) {
+        TableName name = TableName.valueOf(tableName);
+        Path outputDir = new Path(stagingDir, tableName + "-" + System.currentTimeMillis());
+        HbaseMetrics.Call call = metrics.start("bulk_load", tableName);
+        Admin admin = null;
+        Table table = null;
+        RegionLocator locator = null;
+        try {
+            TableDescriptor descriptor = tableMetaCache.getDescriptor(tableName);
+            if (descriptor == null || !descriptor.hasColumnFamily(Bytes.toBytes(familyName))) {
+                log.error(MessageFormat.format("批量导入失败,表或列族不存在,tableName:{0},familyName:{1}", tableName, familyName));
+                return false;
+            }
+            admin = connection(tableName).getAdmin();
+            table = getTable(tableName);
+            locator = connection(tableName).getRegionLocator(name);
+
+            String spillDir = properties.getBulkLoad().getSpillDir();
+            int fileCount;
+            try (HbaseHFileWriter writer = new HbaseHFileWriter(conf, outputDir,
+                    descriptor.getColumnFamily(Bytes.toBytes(familyName)), locator.getStartKeys(),
+                    properties.getBulkLoad().getSortBufferSize(),
+                    new File(StringUtils.isBlank(spillDir) ? System.getProperty("java.io.tmpdir") : spillDir),
+                    System.currentTimeMillis())) {
+                for (HbaseRow row : rows) {
+                    call.rows(1);
+                    byte[] rowKey = Bytes.toBytes(saltedKey(tableName, row.getRowKey()));
+                    for (Map.Entry<String, String> column : row.getColumns().entrySet()) {
+                        if (column.getKey() == null || column.getValue() == null) {
+                            throw new NullPointerException(MessageFormat.format("列名和列数据都不能为空,column:{0},value:{1}"
+                                    , column.getKey(), column.getValue()));
+                        }
+                        writer.add(rowKey, Bytes.toBytes(column.getKey()), Bytes.toBytes(column.getValue()));
+                    }
+                }
+                writer.close();
+                fileCount = writer.getFileCount();
+            }
+
+            new LoadIncrementalHFiles(conf).doBulkLoad(outputDir, admin, table, locator);
+            outputDir.getFileSystem(conf).delete(outputDir, true);
+            log.info(MessageFormat.format("批量导入完成,tableName:{0},familyName:{1},hfiles:{2}", tableName, familyName, fileCount));
+        } catch (IOException e) {
+            call.fail(e);
+            log.error(MessageFormat.format("批量导入失败,tableName:{0},familyName:{1},stagingDir:{2}"
+                    , tableName, familyName, outputDir), e);
+            return false;
+        } finally {
+            call.stop();
+            // 导入的数据不经过本实例的写路径，清空行缓存
+            rowCache.invalidateAll();
+            close(admin, null, table);
+            if (locator != null) {
+                try {
+                    locator.close();
+                } catch (IOException e) {
+                    log.error("关闭 RegionLocator 失败", e);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取表对应的 BufferedMutator，不存在时按配置创建
+     * @param tableName 表名
+     * @return BufferedMutator
+     * @throws IOException
+     */
+    private BufferedMutator getBufferedMutator(String tableName) throws IOException {
+        Connection connection = connection(tableName);
+        ConcurrentMap<Connection, BufferedMutator> tableMutators = mutators.computeIfAbsent(tableName, k -> new ConcurrentHashMap<>());
+        BufferedMutator mutator = tableMutators.get(connection);
+        if (mutator != null) {
+            return mutator;
+        }
+        synchronized (tableMutators) {
+            mutator = tableMutators.get(connection);
+            if (mutator == null) {
+                // 已关闭或中止的连接上的 BufferedMutator 不能再写入，关闭并移除
+                tableMutators.entrySet().removeIf(entry -> {
+                    if (!entry.getKey().isClosed() && !entry.getKey().isAborted()) {
+                        return false;
+                    }
+                    closeMutator(tableName, entry.getValue());
+                    return true;
+                });
+                HbaseProperties.Writer writer = properties.getWriter();
+                BufferedMutatorParams params = new BufferedMutatorParams(TableName.valueOf(tableName))
+                        .writeBufferSize(writer.getBufferSize())
+                        .listener((e, m) -> {
+                            for (int i = 0; i < e.getNumExceptions(); i++) {
+                                metrics.recordError("put_batch", tableName, e.getCause(i));
+                                writeFailureListener.onFailure(tableName, logicalKey(tableName, e.getRow(i).getRow()), e.getCause(i));
+                            }
+                        });
+                if (writer.getFlushInterval() > 0) {
+                    params.setWriteBufferPeriodicFlushTimeoutMs(writer.getFlushInterval());
+                }
+                mutator = connection.getBufferedMutator(params);
+                tableMutators.put(connection, mutator);
+            }
+        }
+        return mutator;
+    }
+
+    /**
+     * 关闭 BufferedMutator，缓冲区中未提交的数据先提交，提交失败的行回调批量写失败监听器
+     * @param tableName 表名
+     * @param mutator BufferedMutator
+     */
+    private void closeMutator(String tableName, BufferedMutator mutator) {
+        try {
+            mutator.close();
+        } catch (IOException e) {
+            log.error(MessageFormat.format("关闭BufferedMutator失败,tableName:{0}", tableName), e);
+        }
+    }
+
+    /**
+     * 构造 Put
+     * @param rowKey 行键
+     * @param familyName 列族名
+     * @param columns <列名, 列值>
+     * @return Put
+     */
+    static Put buildPut(String rowKey, String familyName, Map<String, String> columns) {
+        return buildPut(rowKey, HConstants.LATEST_TIMESTAMP, familyName, columns);
+    }
+
+    /**
+     * 构造 Put，所有列使用指定的时间戳
+     * @param rowKey 行键
+     * @param timestamp 时间戳，HConstants.LATEST_TIMESTAMP 表示由 RegionServer 分配
+     * @param familyName 列族名
+     * @param columns <列名, 列值>
+     * @return Put
+     */
+    static Put buildPut(String rowKey, long timestamp, String familyName, Map<String, String> columns) {
+        Put put = new Put(Bytes.toBytes(rowKey), timestamp);
+        byte[] family = Bytes.toBytes(familyName);
+        columns.forEach((column, value) -> {
+            if (column != null && value != null) {
+                put.addColumn(family, Bytes.toBytes(column), Bytes.toBytes(value));
+            } else {
+                throw new NullPointerException(MessageFormat.format("列名和列数据都不能为空,column:{0},value:{1}"
+                        , column, value));
+            }
+        });
+        return put;
+    }
+
     /**
      * 删除指定的单元格
      * @param tableName 表名
@@ -529,27 +2753,34 @@ public class HbaseUtil {
      * @return boolean
      */
     public boolean deleteColumn(String tableName, String rowKey, String familyName, String columnName) {
+        HbaseMetrics.Call call = metrics.start("delete", tableName);
         Table table = null;
-        Admin admin = null;
         try {
-            admin = connection.getAdmin();
-
-            if (admin.tableExists(TableName.valueOf(tableName))) {
+            if (tableMetaCache.tableExists(tableName)) {
                 // 获取表
                 table = getTable(tableName);
-                Delete delete = new Delete(Bytes.toBytes(rowKey));
+                Delete delete = new Delete(Bytes.toBytes(saltedKey(tableName, rowKey)));
                 // 设置待删除的列
                 delete.addColumn(Bytes.toBytes(familyName), Bytes.toBytes(columnName));
+                delete.setDurability(durabilityOf(tableName, null));
 
+                Map<HbaseIndex, Cell> oldIndexValues = readIndexedValues(table, tableName, rowKey,
+                        indexesOf(tableName, familyName, columnName));
                 table.delete(delete);
+                call.rows(1);
+                metrics.recordWrite("delete", tableName, delete.getDurability(), 1);
+                deleteIndexes(rowKey, oldIndexValues);
+                rowCache.invalidate(tableName, rowKey);
                 log.debug(MessageFormat.format("familyName({0}):columnName({1}) is deleted!", familyName, columnName));
             }
         } catch (IOException e) {
+            call.fail(e);
             log.error(MessageFormat.format("删除指定的列失败,tableName:{0},rowKey:{1},familyName:{2},column:{3}"
                     , tableName, rowKey, familyName, columnName), e);
             return false;
         } finally {
-            close(admin, null, table);
+            call.stop();
+            close(null, null, table);
         }
 
         return true;
@@ -562,24 +2793,30 @@ public class HbaseUtil {
      * @return boolean
      */
     public boolean deleteRow(String tableName, String rowKey) {
+        HbaseMetrics.Call call = metrics.start("delete", tableName);
         Table table = null;
-        Admin admin = null;
         try {
-            admin = connection.getAdmin();
-
-            if (admin.tableExists(TableName.valueOf(tableName))) {
+            if (tableMetaCache.tableExists(tableName)) {
                 // 获取表
                 table = getTable(tableName);
-                Delete delete = new Delete(Bytes.toBytes(rowKey));
+                Delete delete = new Delete(Bytes.toBytes(saltedKey(tableName, rowKey)));
+                delete.setDurability(durabilityOf(tableName, null));
 
+                Map<HbaseIndex, Cell> oldIndexValues = readIndexedValues(table, tableName, rowKey, indexesOf(tableName));
                 table.delete(delete);
+                call.rows(1);
+                metrics.recordWrite("delete", tableName, delete.getDurability(), 1);
+                deleteIndexes(rowKey, oldIndexValues);
+                rowCache.invalidate(tableName, rowKey);
                 log.debug(MessageFormat.format("row({0}) is deleted!", rowKey));
             }
         } catch (IOException e) {
+            call.fail(e);
             log.error(MessageFormat.format("删除指定的行失败,tableName:{0},rowKey:{1}", tableName, rowKey), e);
             return false;
         } finally {
-            close(admin, null, table);
+            call.stop();
+            close(null, null, table);
         }
 
         return true;
@@ -594,9 +2831,8 @@ public class HbaseUtil {
     public boolean deleteColumnFamily(String tableName, String columnFamily) {
         Admin admin = null;
         try {
-            admin = connection.getAdmin();
-
-            if (admin.tableExists(TableName.valueOf(tableName))) {
+            if (tableMetaCache.tableExists(tableName)) {
+                admin = connection(tableName).getAdmin();
                 admin.deleteColumnFamily(TableName.valueOf(tableName), Bytes.toBytes(columnFamily));
                 log.debug(MessageFormat.format("familyName({0}) is deleted!", columnFamily));
             }
@@ -605,6 +2841,8 @@ public class HbaseUtil {
                     tableName,columnFamily),e);
             return false;
         } finally {
+            tableMetaCache.invalidate(tableName);
+            rowCache.invalidateTable(tableName);
             close(admin, null, null);
         }
 
@@ -614,9 +2852,8 @@ public class HbaseUtil {
     public boolean deleteTable(String tableName) {
         Admin admin = null;
         try {
-            admin = connection.getAdmin();
-
-            if (admin.tableExists(TableName.valueOf(tableName))) {
+            if (tableMetaCache.tableExists(tableName)) {
+                admin = connection(tableName).getAdmin();
                 admin.disableTable(TableName.valueOf(tableName));
                 admin.deleteTable(TableName.valueOf(tableName));
                 log.debug(tableName + " is deleted!");
@@ -625,12 +2862,42 @@ public class HbaseUtil {
             log.error(MessageFormat.format("删除指定的表失败,tableName:{0}", tableName), e);
             return false;
         } finally {
+            tableMetaCache.invalidate(tableName);
+            rowCache.invalidateTable(tableName);
             close(admin, null, null);
         }
 
         return true;
     }
 
+    /**
+     * 刷写累加缓冲区，刷写并关闭所有 BufferedMutator，最后关闭连接
+     */
+    @Override
+    public void close() {
+        if (incrementFlusher != null) {
+            // 不中断正在执行的刷写，否则已取出的增量会被当作失败丢弃；等它结束后再做最后一次刷写
+            incrementFlusher.shutdown();
+            try {
+                if (!incrementFlusher.awaitTermination(INCREMENT_FLUSHER_CLOSE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    log.warn("等待累加缓冲区刷写结束超时");
+                    incrementFlusher.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                incrementFlusher.shutdownNow();
+            }
+        }
+        flushIncrements();
+        mutators.forEach((tableName, tableMutators) -> tableMutators.values().forEach(mutator -> closeMutator(tableName, mutator)));
+        mutators.clear();
+        if (scanExecutor != null) {
+            scanExecutor.shutdownNow();
+        }
+        hedgedReader.close();
+        connectionPool.close();
+    }
+
     /**
      * 关闭流
      * @param admin 连接对象
@@ -0,0 +1,19 @@
+package com.example.util;
+
+/**
+ * @ClassName HbaseWriteFailureListener
+ * @Describe BufferedMutator 异步写失败回调，重试耗尽后每一条失败的 Mutation 都会回调一次
+ * @create 2026-10-18 14:12
+ * @Version 1.0
+ **/
+@FunctionalInterface
+public interface HbaseWriteFailureListener {
+
+    /**
+     * 写入失败
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param cause 失败原因
+     */
+    void onFailure(String tableName, String rowKey, Throwable cause);
+}
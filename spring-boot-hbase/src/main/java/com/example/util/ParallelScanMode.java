@@ -0,0 +1,20 @@
+package com.example.util;
+
+/**
+ * @ClassName ParallelScanMode
+ * @Describe 并行 scan 结果的合并方式
+ * @create 2026-10-18 14:40
+ * @Version 1.0
+ **/
+public enum ParallelScanMode {
+
+    /**
+     * 哪个子 scan 先返回就先回调哪一行，吞吐最高，行之间无序
+     */
+    UNORDERED,
+
+    /**
+     * 按行键顺序回调
+     */
+    ORDERED
+}
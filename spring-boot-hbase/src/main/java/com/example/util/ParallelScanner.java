@@ -0,0 +1,419 @@
+package com.example.util;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * @ClassName ParallelScanner
+ * @Describe 将一个 scan 拆成多个子 scan 在线程池中并发执行，结果通过有界队列交给调用线程，
+ * 回调始终在调用线程中执行。
+ * 共享线程池的每个线程都对应一个许可，一次 scan 先取得许可再提交。
+ * 无序和按 region 顺序消费时，工作线程按升序领取子 scan，调用线程也按升序消费，线程数有上限也不会互相等待，
+ * 取得几个许可就用几个线程，一个都取不到时在调用线程中依次执行子 scan；
+ * k 路归并需要所有子 scan 同时运行，每个子 scan 一个线程，许可不够时这次 scan 单独开线程池
+ * @create 2026-10-18 14:40
+ * @Version 1.0
+ **/
+class ParallelScanner<T> {
+
+    /**
+     * 子 scan 结束标记
+     */
+    private static final Object END = new Object();
+
+    private final Connection connection;
+    private final TableName tableName;
+    private final List<Scan> subScans;
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final int parallelism;
+    private final int queueSize;
+    private final Function<Result, T> converter;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    /**
+     * @param connection 连接
+     * @param tableName 表名
+     * @param subScans 子 scan
+     * @param executor 执行子 scan 的线程池
+     * @param slots 线程池的线程许可，许可数等于线程数，所有使用该线程池的 scan 共享
+     * @param parallelism 线程池的线程数
+     * @param queueSize 每个子 scan 最多预读的行数
+     * @param converter 在子 scan 线程中将 Result 转换为回调对象
+     */
+    ParallelScanner(Connection connection, TableName tableName, List<Scan> subScans, ExecutorService executor,
+                    Semaphore slots, int parallelism, int queueSize, Function<Result, T> converter) {
+        this.connection = connection;
+        this.tableName = tableName;
+        this.subScans = subScans;
+        this.executor = executor;
+        this.slots = slots;
+        this.parallelism = parallelism;
+        this.queueSize = queueSize;
+        this.converter = converter;
+    }
+
+    /**
+     * 按 region 边界将 scan 拆分为子 scan，子 scan 按起始行键升序排列且互不重叠
+     * @param locator RegionLocator
+     * @param scan 原始 scan
+     * @return java.util.List<org.apache.hadoop.hbase.client.Scan>
+     * @throws IOException
+     */
+    static List<Scan> splitByRegions(RegionLocator locator, Scan scan) throws IOException {
+        Pair<byte[][], byte[][]> keys = locator.getStartEndKeys();
+        byte[] scanStart = scan.getStartRow();
+        byte[] scanStop = scan.getStopRow();
+
+        List<Scan> subScans = new ArrayList<>(keys.getFirst().length);
+        for (int i = 0; i < keys.getFirst().length; i++) {
+            byte[] regionStart = keys.getFirst()[i];
+            byte[] regionStop = keys.getSecond()[i];
+
+            // 取 region 与 scan 范围的交集，空数组表示不限；边界是 scan 自身的起止行键时沿用其是否包含
+            boolean scanStartBound = Bytes.compareTo(regionStart, scanStart) <= 0;
+            byte[] start = scanStartBound ? scanStart : regionStart;
+            boolean includeStart = !scanStartBound || scan.includeStartRow();
+            // 包含的结束行键恰好是 region 边界时归下一个 region，由下一个 region 的单行子 scan 返回
+            boolean scanStopBound = scanStop.length != 0
+                    && (regionStop.length == 0 || Bytes.compareTo(scanStop, regionStop) < 0);
+            byte[] stop = scanStopBound ? scanStop : regionStop;
+            boolean includeStop = scanStopBound && scan.includeStopRow();
+            if (stop.length != 0) {
+                int cmp = Bytes.compareTo(start, stop);
+                if (cmp > 0 || (cmp == 0 && !(includeStart && includeStop))) {
+                    continue;
+                }
+            }
+
+            Scan subScan = new Scan(scan);
+            subScan.withStartRow(start, includeStart);
+            subScan.withStopRow(stop, includeStop);
+            subScans.add(subScan);
+        }
+        return subScans;
+    }
+
+    /**
+     * 按行键前缀将 scan 拆分为子 scan，每个前缀一个，子 scan 的起止行键为 前缀 + 原起止行键
+     * @param prefixes 行键前缀
+     * @param scan 原始 scan
+     * @return java.util.List<org.apache.hadoop.hbase.client.Scan>
+     * @throws IOException
+     */
+    static List<Scan> splitByPrefixes(List<String> prefixes, Scan scan) throws IOException {
+        List<Scan> subScans = new ArrayList<>(prefixes.size());
+        for (String prefix : prefixes) {
+            byte[] prefixBytes = Bytes.toBytes(prefix);
+            Scan subScan = new Scan(scan);
+            subScan.withStartRow(Bytes.add(prefixBytes, scan.getStartRow()), scan.includeStartRow());
+            if (scan.getStopRow().length == 0) {
+                subScan.withStopRow(prefixStopRow(prefixBytes));
+            } else {
+                subScan.withStopRow(Bytes.add(prefixBytes, scan.getStopRow()), scan.includeStopRow());
+            }
+            subScans.add(subScan);
+        }
+        return subScans;
+    }
+
+    /**
+     * 以 prefix 开头的行键之后的第一个行键，作为前缀扫描的结束行键（不包含）
+     * @param prefix 前缀
+     * @return byte[] 前缀全为 0xFF 时返回空数组，表示扫描到表尾
+     */
+    static byte[] prefixStopRow(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xFF) {
+                byte[] stop = Arrays.copyOf(prefix, i + 1);
+                stop[i]++;
+                return stop;
+            }
+        }
+        return HConstants.EMPTY_END_ROW;
+    }
+
+    /**
+     * 在调用线程中对多个有序的结果迭代器做 k 路归并
+     * @param iterators 各自有序的迭代器
+     * @param comparator 行顺序
+     * @return java.util.Iterator<org.apache.hadoop.hbase.client.Result>
+     */
+    static Iterator<Result> mergeSorted(List<Iterator<Result>> iterators, Comparator<Result> comparator) {
+        // <当前行, 所在迭代器>
+        PriorityQueue<Pair<Result, Iterator<Result>>> heads = new PriorityQueue<>(Math.max(1, iterators.size()),
+                (a, b) -> comparator.compare(a.getFirst(), b.getFirst()));
+        for (Iterator<Result> iterator : iterators) {
+            if (iterator.hasNext()) {
+                heads.add(new Pair<>(iterator.next(), iterator));
+            }
+        }
+
+        return new Iterator<Result>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Result next() {
+                Pair<Result, Iterator<Result>> head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                if (head.getSecond().hasNext()) {
+                    heads.add(new Pair<>(head.getSecond().next(), head.getSecond()));
+                }
+                return head.getFirst();
+            }
+        };
+    }
+
+    /**
+     * 执行并行 scan
+     * @param mode 合并方式
+     * @param comparator ORDERED 模式下子 scan 之间的行顺序，为 null 表示子 scan 互不重叠且已按顺序排列，
+     *                   依次消费即为有序；不为 null 时做 k 路归并
+     * @param consumer 回调，返回 false 时提前结束
+     * @throws IOException 任一子 scan 失败
+     */
+    void scan(ParallelScanMode mode, Comparator<T> comparator, Predicate<T> consumer) throws IOException {
+        if (subScans.isEmpty()) {
+            return;
+        }
+
+        boolean merged = mode == ParallelScanMode.ORDERED && comparator != null;
+        Workers pool;
+        if (merged) {
+            // k 路归并时每个子 scan 一个线程同时运行
+            int workers = subScans.size();
+            if (workers <= parallelism && slots.tryAcquire(workers)) {
+                pool = new Workers(executor, workers, true);
+            } else {
+                pool = new Workers(Executors.newFixedThreadPool(workers), workers, false);
+            }
+        } else {
+            // 多个子 scan 依次复用同一个线程，有几个空闲许可用几个线程
+            int workers = Math.min(subScans.size(), parallelism);
+            int acquired = 0;
+            while (acquired < workers && slots.tryAcquire()) {
+                acquired++;
+            }
+            if (acquired == 0) {
+                scanInCaller(consumer);
+                return;
+            }
+            pool = new Workers(executor, acquired, true);
+        }
+
+        try {
+            if (mode == ParallelScanMode.UNORDERED) {
+                scanUnordered(pool, consumer);
+            } else if (comparator == null) {
+                scanInRegionOrder(pool, consumer);
+            } else {
+                scanMerged(pool, comparator, consumer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("并行 scan 被中断,tableName:" + tableName);
+        } finally {
+            cancelled.set(true);
+            if (pool.executor != executor) {
+                pool.executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * 共享线程池没有空闲线程时，在调用线程中按顺序依次执行子 scan
+     */
+    private void scanInCaller(Predicate<T> consumer) throws IOException {
+        try (Table table = connection.getTable(tableName)) {
+            for (Scan subScan : subScans) {
+                try (ResultScanner rs = table.getScanner(subScan)) {
+                    for (Result r : rs) {
+                        if (r.isEmpty()) {
+                            continue;
+                        }
+                        if (!consumer.test(converter.apply(r))) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void scanUnordered(Workers pool, Predicate<T> consumer) throws IOException, InterruptedException {
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueSize);
+        pool.start(subScans.size(), i -> queue);
+
+        int remaining = subScans.size();
+        while (remaining > 0) {
+            Object o = queue.take();
+            if (o == END) {
+                remaining--;
+            } else if (!consumer.test(value(o))) {
+                return;
+            }
+        }
+    }
+
+    private void scanInRegionOrder(Workers pool, Predicate<T> consumer) throws IOException, InterruptedException {
+        List<BlockingQueue<Object>> queues = submitAll(pool);
+        for (BlockingQueue<Object> queue : queues) {
+            Object o;
+            while ((o = queue.take()) != END) {
+                if (!consumer.test(value(o))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void scanMerged(Workers pool, Comparator<T> comparator, Predicate<T> consumer) throws IOException, InterruptedException {
+        List<BlockingQueue<Object>> queues = submitAll(pool);
+
+        // <当前行, 所在队列下标>
+        PriorityQueue<Pair<T, Integer>> heads = new PriorityQueue<>(queues.size(),
+                (a, b) -> comparator.compare(a.getFirst(), b.getFirst()));
+        for (int i = 0; i < queues.size(); i++) {
+            Object o = queues.get(i).take();
+            if (o != END) {
+                heads.add(new Pair<>(value(o), i));
+            }
+        }
+
+        while (!heads.isEmpty()) {
+            Pair<T, Integer> head = heads.poll();
+            if (!consumer.test(head.getFirst())) {
+                return;
+            }
+            Object o = queues.get(head.getSecond()).take();
+            if (o != END) {
+                heads.add(new Pair<>(value(o), head.getSecond()));
+            }
+        }
+    }
+
+    private List<BlockingQueue<Object>> submitAll(Workers pool) {
+        int perScanQueueSize = Math.max(1, queueSize / subScans.size());
+        List<BlockingQueue<Object>> queues = new ArrayList<>(subScans.size());
+        for (int i = 0; i < subScans.size(); i++) {
+            queues.add(new ArrayBlockingQueue<>(perScanQueueSize));
+        }
+        pool.start(subScans.size(), queues::get);
+        return queues;
+    }
+
+    /**
+     * 执行一个子 scan，行、异常、结束标记依次放入队列
+     * @return boolean 是否正常结束，已取消时返回 false
+     */
+    private boolean run(Scan subScan, BlockingQueue<Object> queue) {
+        try (Table table = connection.getTable(tableName);
+             ResultScanner rs = table.getScanner(subScan)) {
+            for (Result r : rs) {
+                if (r.isEmpty()) {
+                    continue;
+                }
+                if (!offer(queue, converter.apply(r))) {
+                    return false;
+                }
+            }
+            return offer(queue, END);
+        } catch (Throwable e) {
+            offer(queue, e);
+            return false;
+        }
+    }
+
+    /**
+     * 一次 scan 使用的固定数量的工作线程，每个线程依次领取下一个子 scan 执行；
+     * 在共享线程池中运行时每个线程持有一个许可，线程结束时归还
+     */
+    private final class Workers {
+
+        private final ExecutorService executor;
+        private final int workers;
+        private final boolean shared;
+
+        private Workers(ExecutorService executor, int workers, boolean shared) {
+            this.executor = executor;
+            this.workers = workers;
+            this.shared = shared;
+        }
+
+        /**
+         * @param count 子 scan 数
+         * @param queues 第 i 个子 scan 的结果队列
+         */
+        private void start(int count, IntFunction<BlockingQueue<Object>> queues) {
+            AtomicInteger next = new AtomicInteger();
+            for (int w = 0; w < workers; w++) {
+                executor.execute(() -> {
+                    try {
+                        int i;
+                        while (!cancelled.get() && (i = next.getAndIncrement()) < count) {
+                            if (!run(subScans.get(i), queues.apply(i))) {
+                                return;
+                            }
+                        }
+                    } finally {
+                        if (shared) {
+                            slots.release();
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * 队列满时阻塞等待消费，已取消时放弃
+     */
+    private boolean offer(BlockingQueue<Object> queue, Object o) {
+        try {
+            while (!cancelled.get()) {
+                if (queue.offer(o, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T value(Object o) throws IOException {
+        if (o instanceof Throwable) {
+            cancelled.set(true);
+            if (o instanceof IOException) {
+                throw (IOException) o;
+            }
+            throw new IOException("子 scan 执行失败,tableName:" + tableName, (Throwable) o);
+        }
+        return (T) o;
+    }
+}
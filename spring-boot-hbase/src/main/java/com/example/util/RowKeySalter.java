@@ -0,0 +1,56 @@
+package com.example.util;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.List;
+
+/**
+ * @ClassName RowKeySalter
+ * @Describe 行键加盐策略：写入时在逻辑行键前加定长的分桶前缀，把单调递增的行键打散到各个 region，
+ * 读取时去掉前缀还原逻辑行键
+ * @create 2026-10-18 16:20
+ * @Version 1.0
+ **/
+public interface RowKeySalter {
+
+    /**
+     * 逻辑行键 -> 物理行键
+     * @param rowKey 逻辑行键
+     * @return java.lang.String
+     */
+    String salt(String rowKey);
+
+    /**
+     * 前缀的字节长度，所有分桶前缀必须等长
+     * @return int
+     */
+    int getPrefixLength();
+
+    /**
+     * 所有分桶前缀，按字节序升序排列
+     * @return java.util.List<java.lang.String>
+     */
+    List<String> getPrefixes();
+
+    /**
+     * 物理行键 -> 逻辑行键
+     * @param saltedRowKey 物理行键
+     * @return java.lang.String
+     */
+    default String unsalt(byte[] saltedRowKey) {
+        return Bytes.toString(saltedRowKey, getPrefixLength(), saltedRowKey.length - getPrefixLength());
+    }
+
+    /**
+     * 与分桶一一对应的预分区 splitKeys，第一个分桶从表的起始位置开始，不需要 splitKey
+     * @return byte[][]
+     */
+    default byte[][] getSplitKeys() {
+        List<String> prefixes = getPrefixes();
+        byte[][] splitKeys = new byte[prefixes.size() - 1][];
+        for (int i = 1; i < prefixes.size(); i++) {
+            splitKeys[i - 1] = Bytes.toBytes(prefixes.get(i));
+        }
+        return splitKeys;
+    }
+}
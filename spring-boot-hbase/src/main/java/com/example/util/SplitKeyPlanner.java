@@ -0,0 +1,103 @@
+package com.example.util;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @ClassName SplitKeyPlanner
+ * @Describe 根据真实行键样本按分位数计算预分区 splitKeys，使每个 region 的数据量大致相同；
+ * 样本超过上限时用蓄水池抽样，内存占用固定
+ * @create 2026-10-18 16:45
+ * @Version 1.0
+ **/
+public class SplitKeyPlanner {
+
+    /**
+     * 默认最多保留的样本数
+     */
+    public static final int DEFAULT_MAX_SAMPLES = 100000;
+
+    private final int maxSamples;
+    private final List<byte[]> samples;
+    private long seen = 0;
+
+    public SplitKeyPlanner() {
+        this(DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * @param maxSamples 最多保留的样本数
+     */
+    public SplitKeyPlanner(int maxSamples) {
+        if (maxSamples < 1) {
+            throw new IllegalArgumentException("样本数必须大于 0,maxSamples:" + maxSamples);
+        }
+        this.maxSamples = maxSamples;
+        this.samples = new ArrayList<>(Math.min(maxSamples, 1024));
+    }
+
+    /**
+     * 添加一个行键样本
+     * @param rowKey 行键
+     */
+    public void add(byte[] rowKey) {
+        seen++;
+        if (samples.size() < maxSamples) {
+            samples.add(rowKey);
+            return;
+        }
+        long index = ThreadLocalRandom.current().nextLong(seen);
+        if (index < maxSamples) {
+            samples.set((int) index, rowKey);
+        }
+    }
+
+    /**
+     * 添加一批行键样本
+     * @param rowKeys 行键
+     */
+    public void addAll(Iterator<String> rowKeys) {
+        while (rowKeys.hasNext()) {
+            String rowKey = rowKeys.next();
+            if (rowKey != null && !rowKey.isEmpty()) {
+                add(Bytes.toBytes(rowKey));
+            }
+        }
+    }
+
+    /**
+     * 已添加的样本总数（含被抽样淘汰的）
+     * @return long
+     */
+    public long getSeen() {
+        return seen;
+    }
+
+    /**
+     * 按分位数计算 splitKeys，重复的分位点会被合并，因此样本区分度不够时返回的 splitKey 可能少于 numRegions - 1
+     * @param numRegions region 数
+     * @return byte[][] 升序排列的 splitKeys
+     */
+    public byte[][] computeSplitKeys(int numRegions) {
+        if (numRegions < 2 || samples.isEmpty()) {
+            return new byte[0][];
+        }
+
+        List<byte[]> sorted = new ArrayList<>(samples);
+        sorted.sort(Bytes.BYTES_COMPARATOR);
+
+        List<byte[]> splitKeys = new ArrayList<>(numRegions - 1);
+        for (int i = 1; i < numRegions; i++) {
+            byte[] key = sorted.get((int) ((long) i * sorted.size() / numRegions));
+            // splitKey 必须严格递增
+            if (splitKeys.isEmpty() || Bytes.compareTo(splitKeys.get(splitKeys.size() - 1), key) < 0) {
+                splitKeys.add(key);
+            }
+        }
+        return splitKeys.toArray(new byte[0][]);
+    }
+}
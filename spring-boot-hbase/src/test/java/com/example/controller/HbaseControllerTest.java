@@ -0,0 +1,152 @@
+package com.example.controller;
+
+import com.example.config.HbaseProperties;
+import com.example.model.HbaseRow;
+import com.example.util.HashRowKeySalter;
+import com.example.util.HbaseUtil;
+import com.example.util.InMemoryConnection;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @ClassName HbaseControllerTest
+ * @Describe 基于 InMemoryConnection 的查询接口测试
+ * @create 2026-10-18 22:10
+ * @Version 1.0
+ **/
+public class HbaseControllerTest {
+
+    private static final String TABLE = "test_controller";
+    private static final String SALTED_TABLE = "test_controller_salted";
+    private static final String FAMILY = "f";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HbaseUtil hbaseUtil;
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+        InMemoryConnection.reset();
+        Configuration conf = HBaseConfiguration.create();
+        InMemoryConnection.install(conf);
+        hbaseUtil = new HbaseUtil(conf, new HbaseProperties());
+        hbaseUtil.registerRowKeySalter(SALTED_TABLE, new HashRowKeySalter(8));
+        for (String table : Arrays.asList(TABLE, SALTED_TABLE)) {
+            assertTrue(hbaseUtil.createTable(table, Collections.singletonList(FAMILY)));
+            List<HbaseRow> rows = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                rows.add(new HbaseRow(String.format("row%03d", i), Collections.singletonMap("c", String.valueOf(i))));
+            }
+            assertTrue(hbaseUtil.putRows(table, FAMILY, rows));
+            assertTrue(hbaseUtil.flush(table));
+        }
+
+        HbaseController controller = new HbaseController();
+        ReflectionTestUtils.setField(controller, "hbaseUtil", hbaseUtil);
+        ReflectionTestUtils.setField(controller, "objectMapper", objectMapper);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @After
+    public void tearDown() {
+        hbaseUtil.close();
+        InMemoryConnection.reset();
+    }
+
+    /**
+     * 执行流式接口，返回每行解析后的 JSON
+     */
+    private List<JsonNode> ndjson(RequestBuilder request) throws Exception {
+        MvcResult result = mvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        String body = mvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andReturn()
+                .getResponse().getContentAsString();
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> rowKeys(List<JsonNode> lines) {
+        List<String> rowKeys = new ArrayList<>();
+        for (JsonNode line : lines) {
+            assertFalse(line.toString(), line.has("error"));
+            rowKeys.add(line.get("rowKey").asText());
+        }
+        return rowKeys;
+    }
+
+    /**
+     * 测试加盐表的 limit 在客户端截断，而不是每个分桶各返回 limit 行
+     */
+    @Test
+    public void testScanLimitOnSaltedTable() throws Exception {
+        List<String> rowKeys = rowKeys(ndjson(get("/hbase/{tableName}/scan", SALTED_TABLE)
+                .param("start", "row010").param("limit", "5")));
+        assertEquals(Arrays.asList("row010", "row011", "row012", "row013", "row014"), rowKeys);
+    }
+
+    /**
+     * 测试前缀与 start、stop 取交集，stop 之后的前缀行不返回
+     */
+    @Test
+    public void testScanPrefixWithRange() throws Exception {
+        for (String table : Arrays.asList(TABLE, SALTED_TABLE)) {
+            List<String> rowKeys = rowKeys(ndjson(get("/hbase/{tableName}/scan", table)
+                    .param("prefix", "row01").param("start", "row005").param("stop", "row013")));
+            assertEquals(table, Arrays.asList("row010", "row011", "row012"), rowKeys);
+        }
+    }
+
+    /**
+     * 测试 multi-get 跳过不存在的行，查询失败时以错误行结束而不是静默返回空结果
+     */
+    @Test
+    public void testMultiGet() throws Exception {
+        String body = objectMapper.writeValueAsString(Arrays.asList("row001", "missing", "row002"));
+        List<String> rowKeys = rowKeys(ndjson(post("/hbase/{tableName}/rows", TABLE)
+                .contentType(MediaType.APPLICATION_JSON).content(body)));
+        assertEquals(Arrays.asList("row001", "row002"), rowKeys);
+
+        List<JsonNode> lines = ndjson(post("/hbase/{tableName}/rows", "test_controller_missing")
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).has("error"));
+    }
+
+    /**
+     * 测试单行查询区分行不存在和查询失败
+     */
+    @Test
+    public void testGet() throws Exception {
+        mvc.perform(get("/hbase/{tableName}/rows/{rowKey}", TABLE, "row001")).andExpect(status().isOk());
+        mvc.perform(get("/hbase/{tableName}/rows/{rowKey}", TABLE, "missing")).andExpect(status().isNotFound());
+        mvc.perform(get("/hbase/{tableName}/rows/{rowKey}", "test_controller_missing", "row001"))
+                .andExpect(status().isInternalServerError());
+    }
+}
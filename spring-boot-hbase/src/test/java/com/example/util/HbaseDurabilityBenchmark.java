@@ -0,0 +1,124 @@
+package com.example.util;
+
+import com.example.config.HbaseProperties;
+import com.example.model.HbaseRow;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.client.Durability;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName HbaseDurabilityBenchmark
+ * @Describe 不同持久化级别下单行写、批量写的吞吐对比，只有连接真实集群时结果才有意义：
+ * 未指定集群时使用 InMemoryConnection，它没有 WAL，持久化级别被忽略，各级别测得的是同一条代码路径，
+ * 只能验证基准本身能运行，不能作为级别之间的对比。
+ * 运行：mvn -Pbenchmark test -Djmh.args="HbaseDurabilityBenchmark -jvmArgsAppend -Dhbase.zookeeper.quorum=zk1,zk2"，
+ * 集群地址必须通过 -jvmArgsAppend 传给 JMH fork 出的 JVM，直接写 -D 会被 JMH 当作无法识别的参数；
+ * 可加 -p durability=SYNC_WAL,SKIP_WAL 只跑部分级别
+ * @create 2026-10-18 20:40
+ * @Version 1.0
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HbaseDurabilityBenchmark {
+
+    private static final String TABLE = "benchmark_hbase_durability";
+    private static final String FAMILY = "f";
+
+    /**
+     * 批量写每次操作的行数
+     */
+    private static final int BATCH = 100;
+
+    /**
+     * 写入的行键范围
+     */
+    private static final int ROW_COUNT = 100000;
+
+    @Param({"SYNC_WAL", "ASYNC_WAL", "SKIP_WAL", "FSYNC_WAL"})
+    private Durability durability;
+
+    /**
+     * 每行的列数
+     */
+    @Param({"10"})
+    private int columnCount;
+
+    private HbaseUtil hbaseUtil;
+    private String[] columns;
+    private String[] values;
+    private Map<String, String> columnMap;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Configuration conf = HBaseConfiguration.create();
+        String quorum = System.getProperty("hbase.zookeeper.quorum");
+        if (StringUtils.isBlank(quorum)) {
+            System.err.println("未指定 hbase.zookeeper.quorum，使用没有 WAL 的 InMemoryConnection，"
+                    + "各持久化级别的结果没有可比性，durability:" + durability);
+            InMemoryConnection.install(conf);
+        } else {
+            conf.set("hbase.zookeeper.quorum", quorum);
+        }
+        hbaseUtil = new HbaseUtil(conf, new HbaseProperties());
+
+        columns = new String[columnCount];
+        values = new String[columnCount];
+        columnMap = new HashMap<>();
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = "c" + i;
+            values[i] = String.valueOf(100000 + i);
+            columnMap.put(columns[i], values[i]);
+        }
+
+        hbaseUtil.deleteTable(TABLE);
+        if (!hbaseUtil.createTable(TABLE, Arrays.asList(FAMILY))) {
+            throw new IllegalStateException("创建基准测试表失败,tableName:" + TABLE);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hbaseUtil.flush(TABLE);
+        hbaseUtil.deleteTable(TABLE);
+        hbaseUtil.close();
+    }
+
+    private String randomRowKey() {
+        return String.format("row%08d", ThreadLocalRandom.current().nextInt(ROW_COUNT));
+    }
+
+    /**
+     * 单行写，每次一个 RPC，WAL 同步耗时直接体现在延迟中
+     */
+    @Benchmark
+    public void putData() {
+        hbaseUtil.putData(TABLE, randomRowKey(), FAMILY, columns, values, durability);
+    }
+
+    /**
+     * 通过 BufferedMutator 批量写，每次操作 BATCH 行
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean putRows() {
+        List<HbaseRow> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            rows.add(new HbaseRow(randomRowKey(), columnMap));
+        }
+        return hbaseUtil.putRows(TABLE, FAMILY, rows, durability);
+    }
+}
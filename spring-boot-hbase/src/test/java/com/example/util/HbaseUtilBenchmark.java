@@ -0,0 +1,253 @@
+package com.example.util;
+
+import com.example.config.HbaseProperties;
+import com.example.model.HbaseRow;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellComparator;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName HbaseUtilBenchmark
+ * @Describe HbaseUtil 读写路径的 JMH 基准测试：单行写、批量写、单行读、批量读、scan 以及结果解码。
+ * 默认使用进程内的 InMemoryConnection，不需要集群，测得的是 HbaseUtil 及 HBase 客户端对象的开销；
+ * 连接真实集群时通过 -jvmArgsAppend 把集群地址传给 JMH fork 出的 JVM：
+ * mvn -Pbenchmark test -Djmh.args="HbaseUtilBenchmark -jvmArgsAppend -Dhbase.zookeeper.quorum=zk1,zk2"。
+ * 运行：mvn -Pbenchmark test，或 mvn -Pbenchmark test -Djmh.args="HbaseUtilBenchmark.get -prof gc"，
+ * 修改 HbaseUtil 前后各运行一次，对比吞吐量（ops/s）和 gc.alloc.rate.norm（每次操作分配的字节数）
+ * @create 2026-10-18 18:50
+ * @Version 1.0
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HbaseUtilBenchmark {
+
+    private static final String TABLE = "benchmark_hbase_util";
+    private static final String FAMILY = "f";
+
+    /**
+     * 批量写、批量读每次操作的行数
+     */
+    private static final int BATCH = 100;
+
+    /**
+     * scan 每次操作读取的行数
+     */
+    private static final int SCAN_ROWS = 1000;
+
+    /**
+     * 预先写入的行数
+     */
+    @Param({"100000"})
+    private int rowCount;
+
+    /**
+     * 每行的列数
+     */
+    @Param({"10"})
+    private int columnCount;
+
+    /**
+     * 连接池的连接数，配合 -t 多线程运行对比连接竞争
+     */
+    @Param({"1"})
+    private int connections;
+
+    private HbaseUtil hbaseUtil;
+    private String[] rowKeys;
+    private String[] columns;
+    private String[] values;
+    private Map<String, String> columnMap;
+    private HbaseRowSchema schema;
+
+    /**
+     * 解码基准使用的固定结果
+     */
+    private Result sample;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Configuration conf = HBaseConfiguration.create();
+        String quorum = System.getProperty("hbase.zookeeper.quorum");
+        if (StringUtils.isBlank(quorum)) {
+            InMemoryConnection.install(conf);
+        } else {
+            conf.set("hbase.zookeeper.quorum", quorum);
+        }
+        HbaseProperties properties = new HbaseProperties();
+        properties.getConnectionPool().setSize(connections);
+        hbaseUtil = new HbaseUtil(conf, properties);
+
+        rowKeys = new String[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            rowKeys[i] = String.format("row%08d", i);
+        }
+        columns = new String[columnCount];
+        values = new String[columnCount];
+        columnMap = new HashMap<>();
+        schema = new HbaseRowSchema();
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = "c" + i;
+            values[i] = String.valueOf(100000 + i);
+            columnMap.put(columns[i], values[i]);
+            schema.addColumn(FAMILY, columns[i], HbaseColumnType.TEXT_LONG);
+        }
+        hbaseUtil.registerRowSchema(TABLE, schema);
+
+        hbaseUtil.deleteTable(TABLE);
+        if (!hbaseUtil.createTable(TABLE, Arrays.asList(FAMILY))) {
+            throw new IllegalStateException("创建基准测试表失败,tableName:" + TABLE);
+        }
+        List<HbaseRow> rows = new ArrayList<>(rowCount);
+        for (String rowKey : rowKeys) {
+            rows.add(new HbaseRow(rowKey, columnMap));
+        }
+        hbaseUtil.putRows(TABLE, FAMILY, rows);
+        hbaseUtil.flush(TABLE);
+
+        List<Cell> cells = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            cells.add(new KeyValue(Bytes.toBytes(rowKeys[0]), Bytes.toBytes(FAMILY), Bytes.toBytes(columns[i]),
+                    System.currentTimeMillis(), Bytes.toBytes(values[i])));
+        }
+        cells.sort(CellComparator.getInstance());
+        sample = Result.create(cells);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // 先刷写 increment 基准留在缓冲区中的累加，表删除后 close 再刷写只会失败
+        hbaseUtil.flushIncrements();
+        hbaseUtil.flush(TABLE);
+        hbaseUtil.deleteTable(TABLE);
+        hbaseUtil.close();
+    }
+
+    private String randomRowKey() {
+        return rowKeys[ThreadLocalRandom.current().nextInt(rowCount)];
+    }
+
+    /**
+     * 单行写，每次一个 RPC
+     */
+    @Benchmark
+    public void putData() {
+        hbaseUtil.putData(TABLE, randomRowKey(), FAMILY, columns, values);
+    }
+
+    /**
+     * 通过 BufferedMutator 批量写，每次操作 BATCH 行
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean putRows() {
+        List<HbaseRow> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            rows.add(new HbaseRow(randomRowKey(), columnMap));
+        }
+        return hbaseUtil.putRows(TABLE, FAMILY, rows);
+    }
+
+    /**
+     * 计数器累加，同一单元格的增量在客户端合并，后台定时批量刷写
+     */
+    @Benchmark
+    public void increment() {
+        hbaseUtil.increment(TABLE, rowKeys[ThreadLocalRandom.current().nextInt(Math.min(rowCount, 1000))], FAMILY,
+                "counter", 1);
+    }
+
+    /**
+     * 单行读
+     */
+    @Benchmark
+    public String get() {
+        return hbaseUtil.getColumnValue(TABLE, randomRowKey(), FAMILY, columns[0]);
+    }
+
+    /**
+     * 按已注册 schema 的单行读
+     */
+    @Benchmark
+    public long getTyped() {
+        HbaseTypedRow row = hbaseUtil.getTypedRow(TABLE, randomRowKey());
+        return row == null ? 0 : row.getLong(columns[0]);
+    }
+
+    /**
+     * 批量读，每次操作 BATCH 行
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Map<String, Map<String, String>> multiGet() {
+        List<String> keys = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            keys.add(randomRowKey());
+        }
+        return hbaseUtil.getRows(TABLE, keys);
+    }
+
+    /**
+     * 范围 scan，每行转换为 HbaseRow，每次操作 SCAN_ROWS 行
+     */
+    @Benchmark
+    @OperationsPerInvocation(SCAN_ROWS)
+    public void scan(Blackhole blackhole) {
+        int start = ThreadLocalRandom.current().nextInt(Math.max(1, rowCount - SCAN_ROWS));
+        hbaseUtil.scanRows(TABLE, new Scan().withStartRow(Bytes.toBytes(rowKeys[start])).setLimit(SCAN_ROWS), row -> {
+            blackhole.consume(row);
+            return true;
+        });
+    }
+
+    /**
+     * 范围 scan，按 schema 直接从 Cell 解码，每次操作 SCAN_ROWS 行
+     */
+    @Benchmark
+    @OperationsPerInvocation(SCAN_ROWS)
+    public void scanTyped(Blackhole blackhole) {
+        int start = ThreadLocalRandom.current().nextInt(Math.max(1, rowCount - SCAN_ROWS));
+        hbaseUtil.scanTyped(TABLE, new Scan().withStartRow(Bytes.toBytes(rowKeys[start])).setLimit(SCAN_ROWS), row -> {
+            blackhole.consume(row.getLong(columns[0]));
+            return true;
+        });
+    }
+
+    /**
+     * 一行结果解码为 <列名, 列值>
+     */
+    @Benchmark
+    public Map<String, String> decodeColumnMap() {
+        return HbaseUtil.toColumnMap(sample);
+    }
+
+    /**
+     * 一行结果按 schema 解码所有列
+     */
+    @Benchmark
+    public void decodeTyped(Blackhole blackhole) {
+        HbaseTypedRow row = new HbaseTypedRow(schema).reset(sample);
+        for (String column : columns) {
+            blackhole.consume(row.getLong(column));
+        }
+    }
+}
@@ -0,0 +1,526 @@
+package com.example.util;
+
+import com.example.config.HbaseProperties;
+import com.example.model.ColumnFamilyOptions;
+import com.example.model.HbaseRow;
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellComparator;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptorBuilder;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.io.hfile.CacheConfig;
+import org.apache.hadoop.hbase.io.hfile.HFile;
+import org.apache.hadoop.hbase.io.hfile.HFileScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @ClassName HbaseUtilInMemoryTest
+ * @Describe 基于 InMemoryConnection 的 HbaseUtil 测试，不需要集群，覆盖并发、缓存一致性等难以在集群上复现的场景
+ * @create 2026-10-18 21:30
+ * @Version 1.0
+ **/
+public class HbaseUtilInMemoryTest {
+
+    private static final String TABLE = "test_in_memory";
+    private static final String FAMILY = "f";
+
+    private Configuration conf;
+    private HbaseProperties properties;
+    private HbaseUtil hbaseUtil;
+
+    @Before
+    public void setUp() {
+        InMemoryConnection.reset();
+        conf = HBaseConfiguration.create();
+        InMemoryConnection.install(conf);
+        properties = new HbaseProperties();
+        hbaseUtil = new HbaseUtil(conf, properties);
+        assertTrue(hbaseUtil.createTable(TABLE, Arrays.asList(FAMILY)));
+    }
+
+    @After
+    public void tearDown() {
+        hbaseUtil.close();
+        InMemoryConnection.reset();
+    }
+
+    private static List<HbaseRow> rows(int count) {
+        List<HbaseRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new HbaseRow(String.format("row%06d", i), Collections.singletonMap("c", String.valueOf(i))));
+        }
+        return rows;
+    }
+
+    /**
+     * 测试多个加盐表的有序 scan 同时执行，共享线程池时不能互相等待
+     */
+    @Test(timeout = 60000)
+    public void testConcurrentSaltedScans() throws Exception {
+        hbaseUtil.registerRowKeySalter(TABLE, new HashRowKeySalter(16));
+        assertTrue(hbaseUtil.putRows(TABLE, FAMILY, rows(20000)));
+        assertTrue(hbaseUtil.flush(TABLE));
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(callers.submit(() -> {
+                    AtomicLong count = new AtomicLong();
+                    String[] last = {""};
+                    assertTrue(hbaseUtil.scanRows(TABLE, new Scan(), row -> {
+                        // 各分桶归并后仍按逻辑行键有序
+                        assertTrue(row.getRowKey().compareTo(last[0]) > 0);
+                        last[0] = row.getRowKey();
+                        count.incrementAndGet();
+                        return true;
+                    }));
+                    return count.get();
+                }));
+            }
+            for (Future<Long> result : results) {
+                assertEquals(20000L, result.get(30, TimeUnit.SECONDS).longValue());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    /**
+     * 测试按 region 顺序消费的子 scan 比线程多时只用共享线程池的线程，没有空闲线程时在调用线程中执行
+     */
+    @Test(timeout = 60000)
+    public void testRegionOrderScanUsesBoundedWorkers() throws Exception {
+        assertTrue(hbaseUtil.putRows(TABLE, FAMILY, rows(1000)));
+        assertTrue(hbaseUtil.flush(TABLE));
+        List<Scan> subScans = new ArrayList<>();
+        for (int i = 0; i < 1000; i += 20) {
+            subScans.add(new Scan().withStartRow(Bytes.toBytes(String.format("row%06d", i)))
+                    .withStopRow(Bytes.toBytes(String.format("row%06d", i + 20))));
+        }
+
+        AtomicInteger index = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2, r -> new Thread(r, "shared-scan-" + index.incrementAndGet()));
+        try (Connection connection = ConnectionFactory.createConnection(conf)) {
+            for (int permits : new int[]{2, 0}) {
+                Set<String> threads = ConcurrentHashMap.newKeySet();
+                ParallelScanner<String> scanner = new ParallelScanner<>(connection, TableName.valueOf(TABLE), subScans,
+                        executor, new Semaphore(permits), 2, 10, r -> {
+                    threads.add(Thread.currentThread().getName());
+                    return Bytes.toString(r.getRow());
+                });
+                List<String> rowKeys = new ArrayList<>();
+                scanner.scan(ParallelScanMode.ORDERED, null, rowKeys::add);
+
+                assertEquals(1000, rowKeys.size());
+                for (int i = 0; i < rowKeys.size(); i++) {
+                    assertEquals(String.format("row%06d", i), rowKeys.get(i));
+                }
+                for (String thread : threads) {
+                    assertTrue(thread, permits == 0 ? thread.equals(Thread.currentThread().getName())
+                            : thread.startsWith("shared-scan-"));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 测试并行 scan 沿用起始行键不包含、结束行键包含，结束行键恰好是 region 边界时只返回一次
+     */
+    @Test
+    public void testParallelScanKeepsRowInclusiveness() throws Exception {
+        assertTrue(hbaseUtil.putRows(TABLE, FAMILY, rows(100)));
+        assertTrue(hbaseUtil.flush(TABLE));
+        for (ParallelScanMode mode : ParallelScanMode.values()) {
+            List<String> rowKeys = new ArrayList<>();
+            assertTrue(hbaseUtil.parallelScan(TABLE, new Scan().withStartRow(Bytes.toBytes("row000010"), false)
+                    .withStopRow(Bytes.toBytes("row000020"), true), mode, row -> rowKeys.add(row.getRowKey())));
+            Collections.sort(rowKeys);
+            assertEquals(mode.name(), 10, rowKeys.size());
+            assertEquals("row000011", rowKeys.get(0));
+            assertEquals("row000020", rowKeys.get(9));
+        }
+
+        // region 边界：["", row000010)、[row000010, row000020)、[row000020, "")
+        byte[][] bounds = {HConstants.EMPTY_START_ROW, Bytes.toBytes("row000010"), Bytes.toBytes("row000020"),
+                HConstants.EMPTY_END_ROW};
+        RegionLocator locator = (RegionLocator) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RegionLocator.class}, (proxy, method, args) ->
+                        new Pair<>(Arrays.copyOfRange(bounds, 0, 3), Arrays.copyOfRange(bounds, 1, 4)));
+        List<Scan> subScans = ParallelScanner.splitByRegions(locator, new Scan()
+                .withStartRow(Bytes.toBytes("row000010"), false).withStopRow(Bytes.toBytes("row000020"), true));
+        assertEquals(2, subScans.size());
+        assertFalse(subScans.get(0).includeStartRow());
+        assertFalse(subScans.get(0).includeStopRow());
+        assertArrayEquals(bounds[2], subScans.get(1).getStartRow());
+        assertArrayEquals(bounds[2], subScans.get(1).getStopRow());
+        assertTrue(subScans.get(1).includeStartRow() && subScans.get(1).includeStopRow());
+    }
+
+    /**
+     * 测试多版本读取只返回 [minStamp, maxStamp) 内的版本
+     */
+    @Test
+    public void testVersionsInTimeRange() throws Exception {
+        String table = "test_in_memory_versions";
+        ColumnFamilyOptions options = new ColumnFamilyOptions();
+        options.setMaxVersions(5);
+        assertTrue(hbaseUtil.createTable(table, Collections.singletonMap(FAMILY, options)));
+        try (Connection connection = ConnectionFactory.createConnection(conf);
+             Table t = connection.getTable(TableName.valueOf(table))) {
+            for (long ts = 100; ts <= 300; ts += 100) {
+                t.put(new Put(Bytes.toBytes("row1")).addColumn(Bytes.toBytes(FAMILY), Bytes.toBytes("c"), ts,
+                        Bytes.toBytes("v" + ts)));
+            }
+        }
+
+        HbaseRowVersions row = hbaseUtil.getRowsVersions(table, Collections.singletonList("row1"), FAMILY,
+                new String[]{"c"}, 5, 150, 300).get("row1");
+        assertArrayEquals(new long[]{200}, row.getTimestamps("c"));
+        row = hbaseUtil.getRowsVersions(table, Collections.singletonList("row1"), FAMILY, new String[]{"c"}, 5).get("row1");
+        assertArrayEquals(new long[]{300, 200, 100}, row.getTimestamps("c"));
+
+        List<HbaseRowVersions> rows = new ArrayList<>();
+        assertTrue(hbaseUtil.scanVersions(table, new Scan(), 5, 100, 201, rows::add));
+        assertEquals(1, rows.size());
+        assertEquals(Arrays.asList("v200", "v100"), rows.get(0).getValues("c"));
+    }
+
+    /**
+     * 测试 HFile 生成：多次溢写后每个 region 只有一个 HFile，相同的 Cell 跨溢写保留最后写入的值
+     */
+    @Test
+    public void testHFileWriterMergesSpills() throws Exception {
+        File dir = Files.createTempDirectory("hfile-test").toFile();
+        try {
+            Path outputDir = new Path(dir.getAbsolutePath(), "out");
+            byte[][] startKeys = {HConstants.EMPTY_START_ROW, Bytes.toBytes("row000300"), Bytes.toBytes("row000600")};
+            HbaseHFileWriter writer = new HbaseHFileWriter(conf, outputDir, ColumnFamilyDescriptorBuilder.of(FAMILY),
+                    startKeys, 4096, dir, System.currentTimeMillis());
+            // 两轮乱序写入，缓冲区很小，每轮都会多次溢写；第二轮覆盖第一轮的值
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < 1000; i++) {
+                    int row = (i * 7919) % 1000;
+                    writer.add(Bytes.toBytes(String.format("row%06d", row)), Bytes.toBytes("c"),
+                            Bytes.toBytes("v" + round + "_" + row));
+                }
+            }
+            writer.close();
+            assertEquals(3, writer.getFileCount());
+
+            FileSystem fs = outputDir.getFileSystem(conf);
+            List<String> rowKeys = new ArrayList<>();
+            for (FileStatus file : fs.listStatus(new Path(outputDir, FAMILY))) {
+                try (HFile.Reader reader = HFile.createReader(fs, file.getPath(), CacheConfig.DISABLED, true, conf)) {
+                    HFileScanner scanner = reader.getScanner(false, false);
+                    if (scanner.seekTo()) {
+                        do {
+                            Cell cell = scanner.getCell();
+                            String rowKey = Bytes.toString(CellUtil.cloneRow(cell));
+                            assertEquals("v1_" + Integer.parseInt(rowKey.substring(3)), Bytes.toString(CellUtil.cloneValue(cell)));
+                            rowKeys.add(rowKey);
+                        } while (scanner.next());
+                    }
+                }
+            }
+            Collections.sort(rowKeys);
+            assertEquals(1000, rowKeys.size());
+            assertEquals(1000, new HashSet<>(rowKeys).size());
+            // 临时有序段已删除
+            assertEquals(1, dir.listFiles().length);
+        } finally {
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    /**
+     * 测试连接中止后连接池重建连接，批量写使用新连接上的 BufferedMutator
+     */
+    @Test
+    public void testBatchWriteAfterReconnect() {
+        properties.getConnectionPool().setRetryInterval(0);
+        assertTrue(hbaseUtil.putRows(TABLE, FAMILY, rows(10)));
+        assertTrue(hbaseUtil.flush(TABLE));
+
+        InMemoryConnection.abortAll();
+        assertTrue(hbaseUtil.putRows(TABLE, FAMILY, Collections.singletonList(
+                new HbaseRow("row999999", Collections.singletonMap("c", "after")))));
+        assertTrue(hbaseUtil.flush(TABLE));
+        assertEquals("after", hbaseUtil.getColumnValue(TABLE, "row999999", FAMILY, "c"));
+    }
+
+    /**
+     * 测试按 schema 解码：多列族、多版本取最新、schema 外的列和缺失的列、复用实例切换行
+     */
+    @Test
+    public void testTypedRowDecode() {
+        HbaseRowSchema schema = new HbaseRowSchema()
+                .addColumn("b", "n", HbaseColumnType.TEXT_LONG)
+                .addColumn("a", "z", HbaseColumnType.LONG)
+                .addColumn("a", "m", HbaseColumnType.TEXT_DOUBLE)
+                .addColumn("a", "missing", HbaseColumnType.STRING);
+        byte[] row = Bytes.toBytes("row1");
+        List<Cell> cells = new ArrayList<>();
+        cells.add(new KeyValue(row, Bytes.toBytes("a"), Bytes.toBytes("m"), 2L, Bytes.toBytes("1.5")));
+        cells.add(new KeyValue(row, Bytes.toBytes("a"), Bytes.toBytes("m"), 1L, Bytes.toBytes("0.5")));
+        cells.add(new KeyValue(row, Bytes.toBytes("a"), Bytes.toBytes("x"), 1L, Bytes.toBytes("other")));
+        cells.add(new KeyValue(row, Bytes.toBytes("a"), Bytes.toBytes("z"), 1L, Bytes.toBytes(42L)));
+        cells.add(new KeyValue(row, Bytes.toBytes("b"), Bytes.toBytes("n"), 1L, Bytes.toBytes("-7")));
+        cells.sort(CellComparator.getInstance());
+
+        HbaseTypedRow typed = new HbaseTypedRow(schema).reset(Result.create(cells));
+        assertEquals("row1", typed.getRowKey());
+        assertEquals(1.5, typed.getDouble("m"), 0);
+        assertEquals(42L, typed.getLong("z"));
+        assertEquals(-7L, typed.getLong("n"));
+        assertFalse(typed.has("missing"));
+        assertNull(typed.getString("missing"));
+
+        typed.reset(Result.create(Collections.singletonList(
+                new KeyValue(Bytes.toBytes("row2"), Bytes.toBytes("b"), Bytes.toBytes("n"), 1L, Bytes.toBytes("3")))));
+        assertEquals(3L, typed.getLong("n"));
+        assertFalse(typed.has("m"));
+        assertFalse(typed.has("z"));
+
+        typed.reset(Result.EMPTY_RESULT);
+        assertFalse(typed.has("n"));
+    }
+
+    /**
+     * 测试加盐表 scan 的 limit 按合并后的行数截断，而不是每个分桶各返回 limit 行
+     */
+    @Test
+    public void testSaltedScanLimit() {
+        hbaseUtil.registerRowKeySalter(TABLE, new HashRowKeySalter(8));
+        assertTrue(hbaseUtil.putRows(TABLE, FAMILY, rows(100)));
+        assertTrue(hbaseUtil.flush(TABLE));
+
+        List<String> rowKeys = new ArrayList<>();
+        assertTrue(hbaseUtil.scanRows(TABLE, new Scan().withStartRow(Bytes.toBytes("row000010")).setLimit(5), row -> {
+            rowKeys.add(row.getRowKey());
+            return true;
+        }));
+        assertEquals(Arrays.asList("row000010", "row000011", "row000012", "row000013", "row000014"), rowKeys);
+    }
+
+    /**
+     * 测试改值与写回旧值并发：先改值的写入在删除旧索引项之前，另一个写入把旧值写回，
+     * 旧索引项只删除旧时间戳的版本，写回的索引项保留
+     */
+    @Test
+    public void testIndexSurvivesConcurrentRewrite() {
+        assertTrue(hbaseUtil.registerIndex(TABLE, FAMILY, "c"));
+        hbaseUtil.putData(TABLE, "row1", FAMILY, new String[]{"c"}, new String[]{"x"});
+
+        HbaseIndex index = new HbaseIndex(TABLE, FAMILY, "c");
+        InMemoryConnection.beforeNextDelete(index.getIndexTableName(), () -> {
+            sleepPastMillis();
+            hbaseUtil.putData(TABLE, "row1", FAMILY, new String[]{"c"}, new String[]{"x"});
+        });
+        sleepPastMillis();
+        hbaseUtil.setColumnValue(TABLE, "row1", FAMILY, "c", "y");
+
+        assertEquals("x", hbaseUtil.getColumnValue(TABLE, "row1", FAMILY, "c"));
+        assertEquals(Collections.singleton("row1"), hbaseUtil.findByIndex(TABLE, "c", "x").keySet());
+        assertTrue(hbaseUtil.findByIndex(TABLE, "c", "y").isEmpty());
+    }
+
+    /**
+     * 保证之后的写入时间戳更大
+     */
+    private static void sleepPastMillis() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 测试自定义 profile 只覆盖配置了的项，其余沿用同名内置 profile
+     */
+    @Test
+    public void testScanProfileMergesWithBuiltIn() {
+        HbaseProperties.ScanProfile custom = new HbaseProperties.ScanProfile();
+        custom.setCaching(10);
+        properties.getScan().getProfiles().put(HbaseProperties.ScanProfile.BULK_EXPORT, custom);
+
+        Scan scan = hbaseUtil.applyScanProfile(new Scan(), HbaseProperties.ScanProfile.BULK_EXPORT);
+        assertEquals(10, scan.getCaching());
+        assertEquals(32L * 1024 * 1024, scan.getMaxResultSize());
+        assertFalse(scan.getCacheBlocks());
+        assertEquals(Scan.ReadType.STREAM, scan.getReadType());
+    }
+
+    /**
+     * 测试读穿透读到旧值之后该行被写入，旧值不会写回缓存
+     */
+    @Test
+    public void testRowCacheDropsLoadRacingWrite() {
+        properties.getRowCache().getTables().put(TABLE, 60000L);
+        hbaseUtil.setColumnValue(TABLE, "row1", FAMILY, "c", "v1");
+
+        InMemoryConnection.afterNextGet(TABLE, () -> hbaseUtil.setColumnValue(TABLE, "row1", FAMILY, "c", "v2"));
+        assertEquals("v1", hbaseUtil.getRowData(TABLE, "row1").get("c"));
+        assertEquals("v2", hbaseUtil.getRowData(TABLE, "row1").get("c"));
+    }
+
+    /**
+     * 测试删表、删列族后不再返回缓存的行
+     */
+    @Test
+    public void testRowCacheEvictedOnDeleteTable() {
+        properties.getRowCache().getTables().put(TABLE, 60000L);
+        hbaseUtil.setColumnValue(TABLE, "row1", FAMILY, "c", "v1");
+        assertEquals("v1", hbaseUtil.getRowData(TABLE, "row1").get("c"));
+
+        assertTrue(hbaseUtil.deleteTable(TABLE));
+        assertTrue(hbaseUtil.createTable(TABLE, Arrays.asList(FAMILY, "g")));
+        assertTrue(hbaseUtil.getRowData(TABLE, "row1").isEmpty());
+
+        hbaseUtil.setColumnValue(TABLE, "row2", "g", "c", "v2");
+        assertEquals("v2", hbaseUtil.getRowData(TABLE, "row2").get("c"));
+        assertTrue(hbaseUtil.deleteColumnFamily(TABLE, "g"));
+        assertTrue(hbaseUtil.getRowData(TABLE, "row2").isEmpty());
+    }
+
+    /**
+     * 测试表不存在的结果不缓存，其他客户端新建的表立即可见
+     */
+    @Test
+    public void testMetaCacheSkipsMissingTable() {
+        String other = "test_in_memory_other";
+        assertNull(hbaseUtil.getTableDescriptor(other));
+
+        HbaseUtil otherClient = new HbaseUtil(conf, new HbaseProperties());
+        try {
+            assertTrue(otherClient.createTable(other, Arrays.asList(FAMILY)));
+        } finally {
+            otherClient.close();
+        }
+        assertNotNull(hbaseUtil.getTableDescriptor(other));
+        hbaseUtil.setColumnValue(other, "row1", FAMILY, "c", "v1");
+        assertEquals("v1", hbaseUtil.getRowData(other, "row1").get("c"));
+    }
+
+    /**
+     * 测试关闭时等待正在执行的定时刷写结束，已取出的增量不会因中断而丢失
+     */
+    @Test(timeout = 60000)
+    public void testCloseWaitsForRunningIncrementFlush() throws Exception {
+        properties.getIncrementBuffer().setFlushInterval(10);
+        CountDownLatch flushing = new CountDownLatch(1);
+        Thread[] closer = new Thread[1];
+        InMemoryConnection.beforeNextBatch(TABLE, () -> {
+            closer[0] = new Thread(hbaseUtil::close);
+            closer[0].start();
+            flushing.countDown();
+            try {
+                // 关闭开始后刷写仍在进行
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        hbaseUtil.increment(TABLE, "row1", FAMILY, "c", 5);
+        flushing.await();
+        closer[0].join();
+
+        HbaseUtil reader = new HbaseUtil(conf, new HbaseProperties());
+        try {
+            assertEquals(Long.valueOf(5), reader.getCounter(TABLE, "row1", FAMILY, "c"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 测试累加与刷写并发时，每次累加恰好被一次刷写取出，不丢失也不重复
+     */
+    @Test(timeout = 60000)
+    public void testIncrementBufferConcurrentDrain() throws Exception {
+        HbaseIncrementBuffer buffer = new HbaseIncrementBuffer(4);
+        int threads = 8;
+        int adds = 100000;
+        AtomicLong drained = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < adds; i++) {
+                        buffer.add(TABLE, "row" + (i % 16), FAMILY, "c", 1);
+                    }
+                }));
+            }
+            while (futures.stream().anyMatch(f -> !f.isDone())) {
+                drained.addAndGet(sum(buffer));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        drained.addAndGet(sum(buffer));
+        assertEquals((long) threads * adds, drained.get());
+        assertEquals(0, buffer.getPendingCells());
+    }
+
+    private static long sum(HbaseIncrementBuffer buffer) {
+        long sum = 0;
+        for (List<Increment> increments : buffer.drain().values()) {
+            for (Increment increment : increments) {
+                for (List<Cell> cells : increment.getFamilyCellMap().values()) {
+                    for (Cell cell : cells) {
+                        sum += Bytes.toLong(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -1,15 +1,31 @@
 package com.example.util;
 
+import com.example.model.ColumnFamilyOptions;
+import com.example.model.HbasePage;
+import com.example.model.HbaseRow;
+import com.example.model.HbaseTimelineRow;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
+import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.io.compress.Compression;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.regionserver.BloomType;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -20,6 +36,9 @@ public class HbaseUtilTest {
     @Autowired
     private HbaseUtil hbaseService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * 测试删除、创建表
      */
@@ -228,4 +247,319 @@ public class HbaseUtilTest {
             System.out.println(k + "---" + value);
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * 测试批量写入数据
+     */
+    @Test
+    public void testPutRows(){
+        List<HbaseRow> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Map<String,String> columns = new HashMap<>();
+            columns.put("project_id","40866");
+            columns.put("varName","batch_" + i);
+            rows.add(new HbaseRow(String.format("88888_%06d", i), columns));
+        }
+        hbaseService.putRows("test_base","f",rows);
+        hbaseService.flush("test_base");
+
+        Map<String,String> result = hbaseService.getRowData("test_base","88888_000999");
+        result.forEach((k,value) -> {
+            System.out.println(k + "---" + value);
+        });
+    }
+
+    /**
+     * 测试批量查询多行数据
+     */
+    @Test
+    public void testGetRows(){
+        Map<String,Map<String,String>> result = hbaseService.getRows("test_base",Arrays.asList("66804_000001","66804_000002","not_exists"),"f","varName","coefs");
+        result.forEach((rowKey,columnMap) -> {
+            System.out.println("rowKey:" + rowKey);
+            columnMap.forEach((k,value) -> {
+                System.out.println(k + "---" + value);
+            });
+        });
+    }
+
+    /**
+     * 测试流式遍历查询，只取前 2 行
+     */
+    @Test
+    public void testScanRows(){
+        final int[] count = {0};
+        hbaseService.getResultScannerPrefixFilter("test_base","66804",row -> {
+            System.out.println(row.getRowKey() + "---" + row.getColumns());
+            return ++count[0] < 2;
+        });
+    }
+
+    /**
+     * 测试按 region 并行查询，按行键顺序输出
+     */
+    @Test
+    public void testGetResultScannerParallel(){
+        hbaseService.getResultScannerParallel("test_base",null,null,ParallelScanMode.ORDERED,row -> {
+            System.out.println(row.getRowKey() + "---" + row.getColumns());
+            return true;
+        });
+    }
+
+    /**
+     * 测试按 schema 解码数值列
+     */
+    @Test
+    public void testScanTyped(){
+        hbaseService.registerRowSchema("test_base",new HbaseRowSchema()
+                .addColumn("f","project_id",HbaseColumnType.TEXT_LONG)
+                .addColumn("f","coefs",HbaseColumnType.TEXT_DOUBLE)
+                .addColumn("f","tvalues",HbaseColumnType.TEXT_DOUBLE));
+
+        hbaseService.scanTyped("test_base",new Scan().setRowPrefixFilter(Bytes.toBytes("66804")),row -> {
+            System.out.println(row.getRowKey() + "---" + row.getLong("project_id") + "---" + row.getDouble("coefs") + "---" + row.getDouble("tvalues"));
+            return true;
+        });
+    }
+
+    /**
+     * 测试加盐表：按分桶预分区，写入单调递增的行键，按逻辑行键顺序读回
+     */
+    @Test
+    public void testSaltedTable(){
+        hbaseService.registerRowKeySalter("test_salt",new HashRowKeySalter(8));
+        hbaseService.deleteTable("test_salt");
+        hbaseService.createTableBySplitKeys("test_salt",Arrays.asList("f"),hbaseService.getSaltSplitKeys("test_salt"));
+
+        for (int i = 0; i < 20; i++) {
+            hbaseService.putData("test_salt",String.format("66804_%06d", i),"f",new String[]{"varName"},new String[]{"var_" + i});
+        }
+
+        System.out.println(hbaseService.getRowData("test_salt","66804_000005"));
+        hbaseService.getResultScannerPrefixFilter("test_salt","66804_00001",row -> {
+            System.out.println(row.getRowKey() + "---" + row.getColumns());
+            return true;
+        });
+    }
+
+    /**
+     * 测试根据已有表的行键样本计算预分区
+     */
+    @Test
+    public void testPlanSplitKeysFromTable(){
+        byte[][] splitKeys = hbaseService.planSplitKeysFromTable("test_base",4,1f);
+        for (byte[] splitKey : splitKeys) {
+            System.out.println(Bytes.toString(splitKey));
+        }
+    }
+
+    /**
+     * 测试按列族参数建表，以及修改已有列族
+     */
+    @Test
+    public void testCreateTableWithOptions(){
+        ColumnFamilyOptions f = new ColumnFamilyOptions();
+        f.setCompression(Compression.Algorithm.GZ);
+        f.setBloomFilter(BloomType.ROW);
+        f.setDataBlockEncoding(DataBlockEncoding.FAST_DIFF);
+        f.setBlockSize(16 * 1024);
+        f.setMaxVersions(3);
+
+        Map<String,ColumnFamilyOptions> families = new LinkedHashMap<>();
+        families.put("f",f);
+        families.put("back",null);
+
+        hbaseService.deleteTable("test_options");
+        hbaseService.createTableBySplitKeys("test_options",families,hbaseService.getSplitKeys(null));
+
+        ColumnFamilyOptions back = new ColumnFamilyOptions();
+        back.setBlockCacheEnabled(false);
+        back.setTimeToLive(7 * 24 * 3600);
+        hbaseService.modifyColumnFamily("test_options","back",back);
+
+        System.out.println(hbaseService.getTableDescriptor("test_options"));
+    }
+
+    /**
+     * 测试分页查询：每次用上一页返回的令牌查询下一页
+     */
+    @Test
+    public void testScanPage(){
+        String token = null;
+        do {
+            HbasePage page = hbaseService.getResultScannerPrefixFilterPage("test_base","66804",2,token);
+            System.out.println("+++++++++++分页查询+++++++++++");
+            page.getRows().forEach(row -> System.out.println(row.getRowKey() + "---" + row.getColumns()));
+            token = page.getNextToken();
+        } while (token != null);
+    }
+
+    /**
+     * 测试统计行数、列出行键
+     */
+    @Test
+    public void testCountRows(){
+        System.out.println(hbaseService.countRows("test_base",null,null));
+        System.out.println(hbaseService.countRowsByPrefix("test_base","66804"));
+        System.out.println(hbaseService.listRowKeys("test_base","66804_000001","66804_000003"));
+        System.out.println(hbaseService.listRowKeysByPrefix("test_salt","66804_00001"));
+    }
+
+    /**
+     * 测试通过 HFile 批量导入
+     */
+    @Test
+    public void testBulkLoad(){
+        List<HbaseRow> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Map<String,String> columns = new HashMap<>();
+            columns.put("project_id","40866");
+            columns.put("varName","var_" + i);
+            rows.add(new HbaseRow(String.format("%d|bulk_%06d", i % 10, i),columns));
+        }
+
+        hbaseService.bulkLoad("test_base","f",rows);
+        System.out.println(hbaseService.countRows("test_base",null,null));
+    }
+
+    /**
+     * 测试组合查询：行前缀 + 列投影 + 列值条件
+     */
+    @Test
+    public void testQuery(){
+        HbaseQuery query = new HbaseQuery()
+                .prefix("66804")
+                .columns("f","varName","coefs")
+                .where("f","project_id",CompareOperator.EQUAL,"40866")
+                .whereContains("f","varName","o")
+                .limit(10);
+
+        Map<String,Map<String,String>> result = hbaseService.query("test_base",query);
+        System.out.println("+++++++++++组合查询+++++++++++");
+        result.forEach((rowKey,columns) -> System.out.println(rowKey + "---" + columns));
+    }
+
+    /**
+     * 测试操作指标
+     */
+    @Test
+    public void testMetrics(){
+        hbaseService.getRowData("test_base","66804_000001");
+        hbaseService.getResultScannerPrefixFilter("test_base","66804");
+
+        System.out.println("+++++++++++操作指标+++++++++++");
+        meterRegistry.find(HbaseMetrics.OPERATION).timers().forEach(timer ->
+                System.out.println(timer.getId().getTags() + "---count:" + timer.count() + "---mean:" + timer.mean(TimeUnit.MILLISECONDS) + "ms"));
+        meterRegistry.find(HbaseMetrics.ROWS).counters().forEach(counter ->
+                System.out.println(counter.getId().getTags() + "---rows:" + counter.count()));
+    }
+
+    /**
+     * 测试计数器累加合并
+     */
+    @Test
+    public void testIncrement(){
+        Long before = hbaseService.getCounter("test_base","counter_202610181910","f","pv");
+        for (int i = 0; i < 1000; i++) {
+            hbaseService.increment("test_base","counter_202610181910","f","pv",1);
+        }
+        assertTrue(hbaseService.flushIncrements());
+
+        Long after = hbaseService.getCounter("test_base","counter_202610181910","f","pv");
+        System.out.println("+++++++++++计数器累加+++++++++++");
+        System.out.println(before + "---" + after);
+        assertEquals(before + 1000, after.longValue());
+    }
+
+    /**
+     * 测试二级索引
+     */
+    @Test
+    public void testIndex(){
+        hbaseService.registerIndex("test_base","f","varName");
+        hbaseService.putData("test_base","66804_000004","f",new String[]{"project_id","varName","coefs"},new String[]{"40866","city_level","0.7421"});
+        hbaseService.setColumnValue("test_base","66804_000005","f","varName","city_level");
+
+        Map<String,Map<String,String>> result = hbaseService.findByIndex("test_base","varName","city_level");
+        System.out.println("+++++++++++按索引查询+++++++++++");
+        result.forEach((k,value) -> {
+            System.out.println(k + "---" + value);
+        });
+        assertEquals(2, result.size());
+
+        //修改列值后旧值查不到
+        hbaseService.setColumnValue("test_base","66804_000005","f","varName","age");
+        assertFalse(hbaseService.findByIndex("test_base","varName","city_level").containsKey("66804_000005"));
+
+        hbaseService.deleteRow("test_base","66804_000004");
+        hbaseService.deleteRow("test_base","66804_000005");
+        assertTrue(hbaseService.findByIndex("test_base","varName","city_level").isEmpty());
+    }
+
+    /**
+     * 测试批量读取多版本
+     */
+    @Test
+    public void testRowsVersions(){
+        Map<String,HbaseRowVersions> result = hbaseService.getRowsVersions("test_base",
+                Arrays.asList("66804_000001","66804_000002","66804_000003"),"f",new String[]{"varName","coefs"},3);
+        System.out.println("+++++++++++批量读取多版本+++++++++++");
+        result.forEach((k,value) -> {
+            System.out.println(k + "---" + value);
+        });
+        assertEquals(3, result.size());
+
+        //按时间范围流式遍历
+        System.out.println("+++++++++++按时间范围遍历多版本+++++++++++");
+        hbaseService.scanVersions("test_base",new Scan().withStartRow(Bytes.toBytes("66804")),3,
+                0,System.currentTimeMillis(),row -> {
+            System.out.println(row);
+            return true;
+        });
+    }
+
+    /**
+     * 测试连接池指标
+     */
+    @Test
+    public void testConnectionPool(){
+        hbaseService.getColumnValue("test_base","66804_000001","f","varName");
+
+        System.out.println("+++++++++++连接池+++++++++++");
+        meterRegistry.find(HbaseConnectionPool.CONNECTIONS).gauges().forEach(gauge ->
+                System.out.println(gauge.getId().getTags() + "---" + gauge.value()));
+        meterRegistry.find(HbaseConnectionPool.REQUESTS).functionCounters().forEach(counter ->
+                System.out.println(counter.getId().getTags() + "---requests:" + counter.count()));
+        assertTrue(meterRegistry.find(HbaseConnectionPool.CONNECTIONS).tag("state","open").gauge().value() >= 1);
+    }
+
+    /**
+     * 测试指定持久化级别写入
+     */
+    @Test
+    public void testDurability(){
+        hbaseService.putData("test_base","66804_000006","f",new String[]{"project_id","varName"},new String[]{"40866","age"},Durability.ASYNC_WAL);
+        hbaseService.setColumnValue("test_base","66804_000006","f","coefs","0.5012",Durability.SKIP_WAL);
+        assertEquals("0.5012", hbaseService.getColumnValue("test_base","66804_000006","f","coefs"));
+
+        System.out.println("+++++++++++持久化级别+++++++++++");
+        meterRegistry.find(HbaseMetrics.WRITES).counters().forEach(counter ->
+                System.out.println(counter.getId().getTags() + "---rows:" + counter.count()));
+        assertEquals(1, meterRegistry.find(HbaseMetrics.WRITES).tag("durability","SKIP_WAL").counter().count(), 0);
+        hbaseService.deleteRow("test_base","66804_000006");
+    }
+
+    /**
+     * 测试副本读，表需要在 hbase.replica-read.tables 中配置副本数
+     */
+    @Test
+    public void testReplicaRead(){
+        HbaseTimelineRow row = hbaseService.getRowTimeline("test_base","66804_000001");
+        System.out.println("+++++++++++副本读+++++++++++");
+        System.out.println(row.getRowKey() + "---" + row.getColumns() + "---stale:" + row.isStale());
+        assertFalse(row.getColumns().isEmpty());
+
+        meterRegistry.find(HbaseMetrics.HEDGED_READS).counters().forEach(counter ->
+                System.out.println(counter.getId().getTags() + "---count:" + counter.count()));
+    }
+}
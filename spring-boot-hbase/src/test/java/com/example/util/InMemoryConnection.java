@@ -0,0 +1,795 @@
+package com.example.util;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellComparator;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.TableExistsException;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.TableNotFoundException;
+import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.client.metrics.ScanMetrics;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.io.TimeRange;
+import org.apache.hadoop.hbase.security.User;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * @ClassName InMemoryConnection
+ * @Describe 进程内的 HBase Connection 替身，数据保存在内存中，供基准测试在没有集群时使用；
+ * 通过 hbase.client.connection.impl 注入，HbaseUtil 的代码路径不变。
+ * 只实现 HbaseUtil 用到的操作：get、put、delete、increment、batch、scan（含过滤器、版本数、时间范围）、BufferedMutator、
+ * 建表删表，所有表只有一个 region；没有 RPC 和序列化，测得的是客户端的开销
+ * @create 2026-10-18 18:40
+ * @Version 1.0
+ **/
+public class InMemoryConnection implements Connection {
+
+    /**
+     * 所有连接共享的表数据，同一进程中新建的连接能看到之前写入的数据
+     */
+    private static final ConcurrentMap<TableName, MemTable> TABLES = new ConcurrentHashMap<>();
+
+    private static final ServerName SERVER = ServerName.valueOf("localhost", 16020, 1L);
+
+    /**
+     * 已创建且未关闭的连接，供测试模拟连接中止
+     */
+    private static final List<InMemoryConnection> OPEN = new CopyOnWriteArrayList<>();
+
+    /**
+     * <表, 下一次 delete 执行前运行的动作>，供测试在两步写入之间插入并发写
+     */
+    private static final ConcurrentMap<TableName, Runnable> BEFORE_DELETE = new ConcurrentHashMap<>();
+
+    /**
+     * <表, 下一次单行 get 读取之后、返回之前运行的动作>，供测试在读穿透和写回缓存之间插入并发写
+     */
+    private static final ConcurrentMap<TableName, Runnable> AFTER_GET = new ConcurrentHashMap<>();
+
+    /**
+     * <表, 下一次 batch 执行前运行的动作>，供测试在刷写过程中插入关闭等操作
+     */
+    private static final ConcurrentMap<TableName, Runnable> BEFORE_BATCH = new ConcurrentHashMap<>();
+
+    private final Configuration conf;
+    private volatile boolean closed;
+
+    /**
+     * ConnectionFactory 通过反射调用的构造方法
+     * @param conf 配置
+     * @param pool 线程池，不使用
+     * @param user 用户，不使用
+     */
+    public InMemoryConnection(Configuration conf, ExecutorService pool, User user) {
+        this.conf = conf;
+        OPEN.add(this);
+    }
+
+    /**
+     * 注入到配置中，之后 ConnectionFactory.createConnection(conf) 创建的都是内存连接
+     * @param conf 配置
+     * @return org.apache.hadoop.conf.Configuration
+     */
+    public static Configuration install(Configuration conf) {
+        conf.set("hbase.client.connection.impl", InMemoryConnection.class.getName());
+        return conf;
+    }
+
+    /**
+     * 中止所有已创建的连接，模拟 RegionServer 或 ZooKeeper 会话失效
+     */
+    public static void abortAll() {
+        for (InMemoryConnection connection : OPEN) {
+            connection.abort("abortAll", null);
+        }
+    }
+
+    /**
+     * 在该表的下一次 delete 执行前运行一次 action
+     * @param tableName 表名
+     * @param action 动作
+     */
+    public static void beforeNextDelete(String tableName, Runnable action) {
+        BEFORE_DELETE.put(TableName.valueOf(tableName), action);
+    }
+
+    /**
+     * 在该表的下一次单行 get 读取之后、返回之前运行一次 action
+     * @param tableName 表名
+     * @param action 动作
+     */
+    public static void afterNextGet(String tableName, Runnable action) {
+        AFTER_GET.put(TableName.valueOf(tableName), action);
+    }
+
+    /**
+     * 在该表的下一次 batch 执行前运行一次 action，action 之后线程已被中断时 batch 与真实客户端一样抛出 InterruptedException
+     * @param tableName 表名
+     * @param action 动作
+     */
+    public static void beforeNextBatch(String tableName, Runnable action) {
+        BEFORE_BATCH.put(TableName.valueOf(tableName), action);
+    }
+
+    /**
+     * 清空所有表
+     */
+    public static void reset() {
+        TABLES.clear();
+        BEFORE_DELETE.clear();
+        AFTER_GET.clear();
+        BEFORE_BATCH.clear();
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return conf;
+    }
+
+    @Override
+    public Table getTable(TableName tableName) throws IOException {
+        return proxy(Table.class, new TableHandler(memTable(tableName)));
+    }
+
+    @Override
+    public TableBuilder getTableBuilder(TableName tableName, ExecutorService pool) {
+        return proxy(TableBuilder.class, (self, method, args) -> {
+            if ("build".equals(method.getName())) {
+                return getTable(tableName);
+            }
+            // set*Timeout，返回 builder 本身
+            return self;
+        });
+    }
+
+    @Override
+    public BufferedMutator getBufferedMutator(TableName tableName) throws IOException {
+        return getBufferedMutator(new BufferedMutatorParams(tableName));
+    }
+
+    @Override
+    public BufferedMutator getBufferedMutator(BufferedMutatorParams params) throws IOException {
+        return proxy(BufferedMutator.class, new MutatorHandler(this, memTable(params.getTableName()), params));
+    }
+
+    @Override
+    public RegionLocator getRegionLocator(TableName tableName) throws IOException {
+        return proxy(RegionLocator.class, new LocatorHandler(memTable(tableName)));
+    }
+
+    @Override
+    public Admin getAdmin() {
+        return proxy(Admin.class, new AdminHandler());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        OPEN.remove(this);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void abort(String why, Throwable e) {
+        closed = true;
+        OPEN.remove(this);
+    }
+
+    @Override
+    public boolean isAborted() {
+        return closed;
+    }
+
+    private static MemTable memTable(TableName tableName) throws TableNotFoundException {
+        MemTable table = TABLES.get(tableName);
+        if (table == null) {
+            throw new TableNotFoundException(tableName);
+        }
+        return table;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InMemoryConnection.class.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            switch (method.getName()) {
+                case "toString":
+                    return type.getSimpleName() + "@InMemoryConnection";
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "equals":
+                    return self == args[0];
+                default:
+                    try {
+                        return handler.invoke(self, method, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        });
+    }
+
+    private static UnsupportedOperationException unsupported(Method method) {
+        return new UnsupportedOperationException("InMemoryConnection 不支持 " + method.getDeclaringClass().getSimpleName()
+                + "." + method.getName());
+    }
+
+    /**
+     * 一张表：行键 -> 按 CellComparator 排序的 Cell（同一列新版本在前）
+     */
+    static final class MemTable {
+
+        private final TableDescriptor descriptor;
+        private final ConcurrentSkipListMap<byte[], Cell[]> rows = new ConcurrentSkipListMap<>(Bytes.BYTES_COMPARATOR);
+
+        MemTable(TableDescriptor descriptor) {
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * 删除一个列族后的表
+         */
+        MemTable withoutFamily(byte[] family) {
+            MemTable table = new MemTable(TableDescriptorBuilder.newBuilder(descriptor).removeColumnFamily(family).build());
+            rows.forEach((row, cells) -> {
+                List<Cell> kept = new ArrayList<>(cells.length);
+                for (Cell cell : cells) {
+                    if (!CellUtil.matchingFamily(cell, family)) {
+                        kept.add(cell);
+                    }
+                }
+                if (!kept.isEmpty()) {
+                    table.rows.put(row, kept.toArray(new Cell[0]));
+                }
+            });
+            return table;
+        }
+
+        void put(Put put) {
+            long now = System.currentTimeMillis();
+            List<Cell> cells = new ArrayList<>(put.size());
+            for (List<Cell> familyCells : put.getFamilyCellMap().values()) {
+                for (Cell cell : familyCells) {
+                    long ts = cell.getTimestamp() == HConstants.LATEST_TIMESTAMP ? now : cell.getTimestamp();
+                    cells.add(new KeyValue(CellUtil.cloneRow(cell), CellUtil.cloneFamily(cell), CellUtil.cloneQualifier(cell),
+                            ts, KeyValue.Type.Put, CellUtil.cloneValue(cell)));
+                }
+            }
+            rows.compute(put.getRow(), (row, old) -> merge(old, cells));
+        }
+
+        Result increment(Increment increment) {
+            long now = System.currentTimeMillis();
+            List<Cell> updated = new ArrayList<>(increment.size());
+            rows.compute(increment.getRow(), (row, old) -> {
+                updated.clear();
+                for (List<Cell> familyCells : increment.getFamilyCellMap().values()) {
+                    for (Cell cell : familyCells) {
+                        long value = Bytes.toLong(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+                        Cell current = old == null ? null : latest(old, cell);
+                        if (current != null) {
+                            value += Bytes.toLong(current.getValueArray(), current.getValueOffset(), current.getValueLength());
+                        }
+                        updated.add(new KeyValue(row, CellUtil.cloneFamily(cell), CellUtil.cloneQualifier(cell),
+                                now, KeyValue.Type.Put, Bytes.toBytes(value)));
+                    }
+                }
+                return merge(old, updated);
+            });
+            if (!increment.isReturnResults()) {
+                return Result.create(Collections.emptyList());
+            }
+            updated.sort(CellComparator.getInstance());
+            return Result.create(updated);
+        }
+
+        private static Cell latest(Cell[] cells, Cell column) {
+            for (Cell cell : cells) {
+                if (CellUtil.matchingColumn(cell, column)) {
+                    // 同一列新版本在前
+                    return cell;
+                }
+            }
+            return null;
+        }
+
+        void delete(Delete delete) {
+            if (delete.getFamilyCellMap().isEmpty()) {
+                rows.remove(delete.getRow());
+                return;
+            }
+            rows.computeIfPresent(delete.getRow(), (row, old) -> {
+                List<Cell> kept = new ArrayList<>(Arrays.asList(old));
+                for (List<Cell> markers : delete.getFamilyCellMap().values()) {
+                    for (Cell marker : markers) {
+                        applyDelete(kept, marker);
+                    }
+                }
+                return kept.isEmpty() ? null : kept.toArray(new Cell[0]);
+            });
+        }
+
+        Result get(Get get) throws IOException {
+            // 没有真正的副本，指定了副本的读取返回主副本的数据并标记为 stale
+            boolean stale = get.getReplicaId() > 0;
+            Cell[] cells = rows.get(get.getRow());
+            if (cells == null) {
+                return Result.create(Collections.emptyList(), null, stale);
+            }
+            List<Cell> selected = select(cells, get.getFamilyMap(), get.getMaxVersions(), get.getTimeRange(), get.getFilter());
+            return Result.create(selected == null ? Collections.emptyList() : selected, null, stale);
+        }
+
+        Iterator<Result> scan(Scan scan) {
+            // 反向 scan 的起始行键大于结束行键，在倒序视图上同样用 tailMap、headMap 截取
+            NavigableMap<byte[], Cell[]> range = scan.isReversed() ? rows.descendingMap() : rows;
+            byte[] start = scan.getStartRow();
+            byte[] stop = scan.getStopRow();
+            if (start.length > 0) {
+                range = range.tailMap(start, scan.includeStartRow());
+            }
+            if (stop.length > 0) {
+                range = range.headMap(stop, scan.includeStopRow());
+            }
+            Iterator<Cell[]> it = range.values().iterator();
+            Filter filter = scan.getFilter();
+            int limit = scan.getLimit();
+            return new Iterator<Result>() {
+
+                private Result next;
+                private int returned;
+
+                @Override
+                public boolean hasNext() {
+                    try {
+                        while (next == null && it.hasNext() && (limit <= 0 || returned < limit)) {
+                            if (filter != null && filter.filterAllRemaining()) {
+                                return false;
+                            }
+                            List<Cell> selected = select(it.next(), scan.getFamilyMap(), scan.getMaxVersions(),
+                                    scan.getTimeRange(), filter);
+                            if (selected != null && !selected.isEmpty()) {
+                                next = Result.create(selected);
+                                returned++;
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Result next() {
+                    if (!hasNext()) {
+                        throw new java.util.NoSuchElementException();
+                    }
+                    Result r = next;
+                    next = null;
+                    return r;
+                }
+            };
+        }
+
+        private Cell[] merge(Cell[] old, List<Cell> added) {
+            List<Cell> cells = new ArrayList<>(added.size() + (old == null ? 0 : old.length));
+            if (old != null) {
+                Collections.addAll(cells, old);
+            }
+            // 新写入的在前，排序稳定，同一列同一时间戳保留新值
+            cells.addAll(0, added);
+            cells.sort(CellComparator.getInstance());
+
+            List<Cell> kept = new ArrayList<>(cells.size());
+            Cell previous = null;
+            int versions = 0;
+            for (Cell cell : cells) {
+                if (previous != null && CellUtil.matchingColumn(previous, cell)) {
+                    if (previous.getTimestamp() == cell.getTimestamp()) {
+                        continue;
+                    }
+                    versions++;
+                } else {
+                    versions = 1;
+                }
+                previous = cell;
+                if (versions <= maxVersions(cell)) {
+                    kept.add(cell);
+                }
+            }
+            return kept.toArray(new Cell[0]);
+        }
+
+        private int maxVersions(Cell cell) {
+            ColumnFamilyDescriptor family = descriptor.getColumnFamily(CellUtil.cloneFamily(cell));
+            return family == null ? 1 : family.getMaxVersions();
+        }
+
+        private static void applyDelete(List<Cell> cells, Cell marker) {
+            Cell.Type type = marker.getType();
+            long ts = marker.getTimestamp();
+            boolean latestOnly = type == Cell.Type.Delete && ts == HConstants.LATEST_TIMESTAMP;
+            boolean deletedLatest = false;
+            for (Iterator<Cell> it = cells.iterator(); it.hasNext(); ) {
+                Cell cell = it.next();
+                if (!CellUtil.matchingFamily(cell, marker)) {
+                    continue;
+                }
+                switch (type) {
+                    case DeleteFamily:
+                        if (cell.getTimestamp() <= ts) {
+                            it.remove();
+                        }
+                        break;
+                    case DeleteColumn:
+                        if (CellUtil.matchingQualifier(cell, marker) && cell.getTimestamp() <= ts) {
+                            it.remove();
+                        }
+                        break;
+                    case Delete:
+                        if (CellUtil.matchingQualifier(cell, marker)
+                                && (latestOnly ? !deletedLatest : cell.getTimestamp() == ts)) {
+                            // 同一列新版本在前，第一个即最新版本
+                            it.remove();
+                            deletedLatest = true;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        /**
+         * 按列、版本数、时间范围、过滤器选出一行中返回的 Cell
+         * @return java.util.List<org.apache.hadoop.hbase.Cell> 整行被过滤器过滤时返回 null
+         */
+        private static List<Cell> select(Cell[] cells, Map<byte[], NavigableSet<byte[]>> familyMap, int maxVersions,
+                                         TimeRange timeRange, Filter filter) throws IOException {
+            if (filter != null) {
+                filter.reset();
+                if (cells.length > 0 && filter.filterRowKey(cells[0])) {
+                    return null;
+                }
+            }
+            List<Cell> selected = new ArrayList<>(cells.length);
+            Cell previous = null;
+            int versions = 0;
+            boolean skipColumn = false;
+            for (Cell cell : cells) {
+                if (previous == null || !CellUtil.matchingColumn(previous, cell)) {
+                    versions = 0;
+                    skipColumn = false;
+                }
+                previous = cell;
+                if (skipColumn || !matches(familyMap, cell) || !timeRange.withinTimeRange(cell.getTimestamp())) {
+                    continue;
+                }
+                if (++versions > maxVersions) {
+                    continue;
+                }
+                if (filter == null) {
+                    selected.add(cell);
+                    continue;
+                }
+                Filter.ReturnCode code = filter.filterCell(cell);
+                if (code == Filter.ReturnCode.NEXT_ROW) {
+                    break;
+                }
+                switch (code) {
+                    case INCLUDE:
+                        selected.add(filter.transformCell(cell));
+                        break;
+                    case INCLUDE_AND_NEXT_COL:
+                        selected.add(filter.transformCell(cell));
+                        skipColumn = true;
+                        break;
+                    case INCLUDE_AND_SEEK_NEXT_ROW:
+                        selected.add(filter.transformCell(cell));
+                        return finish(filter, selected);
+                    case NEXT_COL:
+                        skipColumn = true;
+                        break;
+                    default:
+                        // SKIP、SEEK_NEXT_USING_HINT：逐个 Cell 比较，不做跳转
+                        break;
+                }
+            }
+            return filter == null ? selected : finish(filter, selected);
+        }
+
+        private static List<Cell> finish(Filter filter, List<Cell> selected) throws IOException {
+            filter.filterRowCells(selected);
+            if (filter.filterRow()) {
+                return null;
+            }
+            return selected;
+        }
+
+        private static boolean matches(Map<byte[], NavigableSet<byte[]>> familyMap, Cell cell) {
+            if (familyMap.isEmpty()) {
+                return true;
+            }
+            for (Map.Entry<byte[], NavigableSet<byte[]>> entry : familyMap.entrySet()) {
+                if (CellUtil.matchingFamily(cell, entry.getKey())) {
+                    NavigableSet<byte[]> qualifiers = entry.getValue();
+                    return qualifiers == null || qualifiers.isEmpty() || qualifiers.contains(CellUtil.cloneQualifier(cell));
+                }
+            }
+            return false;
+        }
+    }
+
+    private final class TableHandler implements InvocationHandler {
+
+        private final MemTable table;
+
+        TableHandler(MemTable table) {
+            this.table = table;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getName":
+                    return table.descriptor.getTableName();
+                case "getConfiguration":
+                    return conf;
+                case "getDescriptor":
+                    return table.descriptor;
+                case "get":
+                    if (args[0] instanceof Get) {
+                        Result result = table.get((Get) args[0]);
+                        Runnable afterGet = AFTER_GET.remove(table.descriptor.getTableName());
+                        if (afterGet != null) {
+                            afterGet.run();
+                        }
+                        return result;
+                    }
+                    List<Get> gets = (List<Get>) args[0];
+                    Result[] results = new Result[gets.size()];
+                    for (int i = 0; i < results.length; i++) {
+                        results[i] = table.get(gets.get(i));
+                    }
+                    return results;
+                case "put":
+                    if (args[0] instanceof Put) {
+                        table.put((Put) args[0]);
+                    } else {
+                        ((List<Put>) args[0]).forEach(table::put);
+                    }
+                    return null;
+                case "delete":
+                    Runnable beforeDelete = BEFORE_DELETE.remove(table.descriptor.getTableName());
+                    if (beforeDelete != null) {
+                        beforeDelete.run();
+                    }
+                    if (args[0] instanceof Delete) {
+                        table.delete((Delete) args[0]);
+                    } else {
+                        ((List<Delete>) args[0]).forEach(table::delete);
+                    }
+                    return null;
+                case "increment":
+                    return table.increment((Increment) args[0]);
+                case "batch":
+                    Runnable beforeBatch = BEFORE_BATCH.remove(table.descriptor.getTableName());
+                    if (beforeBatch != null) {
+                        beforeBatch.run();
+                    }
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException("batch 被中断");
+                    }
+                    List<? extends Row> actions = (List<? extends Row>) args[0];
+                    Object[] batchResults = (Object[]) args[1];
+                    for (int i = 0; i < actions.size(); i++) {
+                        Row action = actions.get(i);
+                        if (action instanceof Increment) {
+                            batchResults[i] = table.increment((Increment) action);
+                        } else if (action instanceof Put) {
+                            table.put((Put) action);
+                            batchResults[i] = Result.create(Collections.emptyList());
+                        } else if (action instanceof Delete) {
+                            table.delete((Delete) action);
+                            batchResults[i] = Result.create(Collections.emptyList());
+                        } else if (action instanceof Get) {
+                            batchResults[i] = table.get((Get) action);
+                        } else {
+                            throw new UnsupportedOperationException("InMemoryConnection 不支持 " + action.getClass().getSimpleName());
+                        }
+                    }
+                    return null;
+                case "getScanner":
+                    if (args[0] instanceof Scan) {
+                        return new MemScanner(table.scan(new Scan((Scan) args[0])));
+                    }
+                    Scan scan = new Scan().addFamily((byte[]) args[0]);
+                    if (args.length > 1) {
+                        scan.addColumn((byte[]) args[0], (byte[]) args[1]);
+                    }
+                    return new MemScanner(table.scan(scan));
+                case "close":
+                    return null;
+                default:
+                    throw unsupported(method);
+            }
+        }
+    }
+
+    private static final class MemScanner implements ResultScanner {
+
+        private final Iterator<Result> results;
+
+        MemScanner(Iterator<Result> results) {
+            this.results = results;
+        }
+
+        @Override
+        public Result next() {
+            return results.hasNext() ? results.next() : null;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean renewLease() {
+            return true;
+        }
+
+        @Override
+        public ScanMetrics getScanMetrics() {
+            return null;
+        }
+    }
+
+    private static final class MutatorHandler implements InvocationHandler {
+
+        private final InMemoryConnection connection;
+        private final MemTable table;
+        private final BufferedMutatorParams params;
+
+        MutatorHandler(InMemoryConnection connection, MemTable table, BufferedMutatorParams params) {
+            this.connection = connection;
+            this.table = table;
+            this.params = params;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getName":
+                    return params.getTableName();
+                case "getWriteBufferSize":
+                    return params.getWriteBufferSize();
+                case "mutate":
+                    // 与真实客户端一样，连接关闭后不能再写入
+                    if (connection.isClosed()) {
+                        throw new IOException("连接已关闭,tableName:" + params.getTableName());
+                    }
+                    // 没有写缓冲区，直接写入
+                    List<Mutation> mutations = args[0] instanceof Mutation
+                            ? Collections.singletonList((Mutation) args[0]) : (List<Mutation>) args[0];
+                    for (Mutation mutation : mutations) {
+                        if (mutation instanceof Put) {
+                            table.put((Put) mutation);
+                        } else if (mutation instanceof Delete) {
+                            table.delete((Delete) mutation);
+                        } else {
+                            throw new UnsupportedOperationException("InMemoryConnection 不支持 " + mutation.getClass().getSimpleName());
+                        }
+                    }
+                    return null;
+                case "flush":
+                case "close":
+                case "setRpcTimeout":
+                case "setOperationTimeout":
+                case "setWriteBufferPeriodicFlush":
+                case "disableWriteBufferPeriodicFlush":
+                    return null;
+                default:
+                    throw unsupported(method);
+            }
+        }
+    }
+
+    private static final class LocatorHandler implements InvocationHandler {
+
+        private final MemTable table;
+
+        LocatorHandler(MemTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getName":
+                    return table.descriptor.getTableName();
+                case "getStartKeys":
+                    return new byte[][]{HConstants.EMPTY_START_ROW};
+                case "getEndKeys":
+                    return new byte[][]{HConstants.EMPTY_END_ROW};
+                case "getStartEndKeys":
+                    return new Pair<>(new byte[][]{HConstants.EMPTY_START_ROW}, new byte[][]{HConstants.EMPTY_END_ROW});
+                case "getRegionLocation":
+                case "getAllRegionLocations":
+                    HRegionLocation location = new HRegionLocation(RegionInfoBuilder.newBuilder(table.descriptor.getTableName())
+                            .build(), SERVER);
+                    return "getRegionLocation".equals(method.getName()) ? location : Collections.singletonList(location);
+                case "close":
+                    return null;
+                default:
+                    throw unsupported(method);
+            }
+        }
+    }
+
+    private static final class AdminHandler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "tableExists":
+                    return TABLES.containsKey((TableName) args[0]);
+                case "getDescriptor":
+                    return memTable((TableName) args[0]).descriptor;
+                case "listTableNames":
+                    return TABLES.keySet().toArray(new TableName[0]);
+                case "createTable":
+                    TableDescriptor descriptor = (TableDescriptor) args[0];
+                    if (TABLES.putIfAbsent(descriptor.getTableName(), new MemTable(descriptor)) != null) {
+                        throw new TableExistsException(descriptor.getTableName());
+                    }
+                    return null;
+                case "disableTable":
+                case "enableTable":
+                case "close":
+                    return null;
+                case "deleteColumnFamily":
+                    if (TABLES.computeIfPresent((TableName) args[0], (k, table) -> table.withoutFamily((byte[]) args[1])) == null) {
+                        throw new TableNotFoundException((TableName) args[0]);
+                    }
+                    return null;
+                case "deleteTable":
+                    if (TABLES.remove((TableName) args[0]) == null) {
+                        throw new TableNotFoundException((TableName) args[0]);
+                    }
+                    return null;
+                default:
+                    throw unsupported(method);
+            }
+        }
+    }
+}